@@ -0,0 +1,22 @@
+package com.ms.sw.attendance.dto;
+
+/**
+ * Attendance of an employee summed over one month.
+ *
+ * <p>Hours are split per day into regular, 125% and 150% hours by the daily limits of
+ * {@code PayrollConstants}, so payroll can be calculated from this row alone.</p>
+ */
+public record AttendanceMonthSummaryDto(
+        String personalId,
+        int year,
+        int month,
+        double regularHours,
+        double hours125,
+        double hours150,
+        int travelDays,
+        int presentDays,
+        int sickDays,
+        int vacationDays,
+        int totalDays
+) {
+}
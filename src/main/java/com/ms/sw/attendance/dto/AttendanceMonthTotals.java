@@ -0,0 +1,40 @@
+package com.ms.sw.attendance.dto;
+
+import java.time.YearMonth;
+
+/**
+ * Attendance of an employee summed over one month by the database, see
+ * {@code AttendanceRepository#sumAttendanceOfEmployees}.
+ */
+public interface AttendanceMonthTotals {
+
+    String getPersonalId();
+
+    Double getRegularHours();
+
+    Double getHours125();
+
+    Double getHours150();
+
+    Long getTravelDays();
+
+    Long getPresentDays();
+
+    Long getSickDays();
+
+    Long getVacationDays();
+
+    Long getTotalDays();
+
+    default AttendanceMonthSummaryDto toSummary(YearMonth month) {
+        return new AttendanceMonthSummaryDto(
+                getPersonalId(), month.getYear(), month.getMonthValue(),
+                getRegularHours(), getHours125(), getHours150(),
+                Math.toIntExact(getTravelDays()),
+                Math.toIntExact(getPresentDays()),
+                Math.toIntExact(getSickDays()),
+                Math.toIntExact(getVacationDays()),
+                Math.toIntExact(getTotalDays())
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package com.ms.sw.attendance.model;
+
+import com.ms.sw.employee.model.Employees;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Month-to-date attendance summary of an employee, kept up to date whenever attendance of the month changes.
+ */
+@Entity
+@Table(
+        name = "attendance_month_summary",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "summary_year", "summary_month"})
+)
+@Data
+public class AttendanceMonthSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employees employee;
+
+    @Column(name = "summary_year", nullable = false)
+    private int summaryYear;
+
+    @Column(name = "summary_month", nullable = false)
+    private int summaryMonth;
+
+    @Column(name = "regular_hours", nullable = false)
+    private double regularHours;
+
+    @Column(name = "hours_125", nullable = false)
+    private double hours125;
+
+    @Column(name = "hours_150", nullable = false)
+    private double hours150;
+
+    @Column(name = "travel_days", nullable = false)
+    private int travelDays;
+
+    @Column(name = "present_days", nullable = false)
+    private int presentDays;
+
+    @Column(name = "sick_days", nullable = false)
+    private int sickDays;
+
+    @Column(name = "vacation_days", nullable = false)
+    private int vacationDays;
+
+    @Column(name = "total_days", nullable = false)
+    private int totalDays;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package com.ms.sw.attendance.repo;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.model.AttendanceMonthSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceMonthSummaryRepository extends JpaRepository<AttendanceMonthSummary, Long> {
+
+    @Query("""
+        select new com.ms.sw.attendance.dto.AttendanceMonthSummaryDto(
+            s.employee.personalId,
+            s.summaryYear,
+            s.summaryMonth,
+            s.regularHours,
+            s.hours125,
+            s.hours150,
+            s.travelDays,
+            s.presentDays,
+            s.sickDays,
+            s.vacationDays,
+            s.totalDays
+        )
+        from AttendanceMonthSummary s
+        where s.employee.user.username = :username
+        and s.employee.personalId in :personalIds
+        and s.employee.status = 'ACTIVE'
+        and s.summaryYear = :year
+        and s.summaryMonth = :month
+    """)
+    List<AttendanceMonthSummaryDto> findSummaries(@Param("username") String username,
+                                                  @Param("personalIds") Collection<String> personalIds,
+                                                  @Param("year") int year,
+                                                  @Param("month") int month);
+
+    @Query("""
+        select s
+        from AttendanceMonthSummary s
+        where s.employee.id = :employeeId
+        and s.summaryYear = :year
+        and s.summaryMonth = :month
+    """)
+    Optional<AttendanceMonthSummary> findSummaryOfEmployee(@Param("employeeId") Long employeeId,
+                                                           @Param("year") int year,
+                                                           @Param("month") int month);
+}
@@ -1,9 +1,9 @@
 package com.ms.sw.attendance.repo;
 
 import com.ms.sw.attendance.dto.AttendanceDto;
+import com.ms.sw.attendance.dto.AttendanceMonthTotals;
 import com.ms.sw.attendance.dto.EmployeeOptionDto;
 import com.ms.sw.attendance.model.Attendance;
-import com.ms.sw.attendance.dto.AttendancePayrollDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -81,26 +82,57 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
             @Param("notes") String notes
             );
 
+    /**
+     * Sums the attendance of each employee over {@code [startDate, endDate)}, splitting every day into
+     * regular hours up to {@code regularLimit}, the next {@code overtime125Limit} hours at 125% and the
+     * rest at 150%. Returns one row per employee with attendance.
+     */
+    @Query(value = """
+    SELECT
+        e.personal_id AS "personalId",
+        SUM(LEAST(a.total_hours, :regularLimit)) AS "regularHours",
+        SUM(LEAST(GREATEST(a.total_hours - :regularLimit, 0), :overtime125Limit)) AS "hours125",
+        SUM(GREATEST(a.total_hours - :regularLimit - :overtime125Limit, 0)) AS "hours150",
+        COUNT(*) FILTER (WHERE a.travel_alow) AS "travelDays",
+        COUNT(*) FILTER (WHERE UPPER(a.status) = 'PRESENT') AS "presentDays",
+        COUNT(*) FILTER (WHERE UPPER(a.status) = 'SICK') AS "sickDays",
+        COUNT(*) FILTER (WHERE UPPER(a.status) = 'VACATION') AS "vacationDays",
+        COUNT(*) AS "totalDays"
+    FROM attendance a
+    JOIN employees e ON e.id = a.employee_id
+    JOIN users u ON u.id = e.user_id
+    WHERE u.username = :username
+      AND e.personal_id IN (:personalIds)
+      AND e.status = 'ACTIVE'
+      AND a.date >= :startDate
+      AND a.date < :endDate
+    GROUP BY e.personal_id
+    """, nativeQuery = true)
+    List<AttendanceMonthTotals> sumAttendanceOfEmployees(
+            @Param("username") String username,
+            @Param("personalIds") Collection<String> personalIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("regularLimit") double regularLimit,
+            @Param("overtime125Limit") double overtime125Limit
+            );
+
+    /**
+     * Months from {@code startDate} to {@code endDate} (exclusive) with attendance of the user that is not closed yet,
+     * as {@code year * 100 + month}.
+     */
     @Query("""
-    SELECT new com.ms.sw.attendance.dto.AttendancePayrollDto(
-            a.employee.personalId,
-            a.date,
-            a.totalHours,
-            a.status,
-            a.travelAllow
-    )
-    FROM Attendance a
-    WHERE a.employee.user.username = :username
-      AND a.employee.personalId = :personalId
-      and a.employee.status = 'ACTIVE'
-      AND YEAR(a.date) = :year
-      AND MONTH(a.date) = :month
+        select distinct year(a.date) * 100 + month(a.date)
+        from Attendance a
+        where a.employee.user.username = :username
+        and a.attendanceClosed = false
+        and a.date >= :startDate
+        and a.date < :endDate
     """)
-    List<AttendancePayrollDto> loadAttendancePayrollDto(
+    List<Integer> findOpenPeriods(
             @Param("username") String username,
-            @Param("personalId") String personalId,
-            @Param("year") int year,
-            @Param("month") int month
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
             );
 
     @Modifying
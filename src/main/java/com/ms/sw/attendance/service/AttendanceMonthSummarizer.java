@@ -0,0 +1,68 @@
+package com.ms.sw.attendance.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendancePayrollDto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Sums daily attendance rows of one employee and month into an {@link AttendanceMonthSummaryDto}.
+ *
+ * <p>Every day contributes up to {@code regularDailyLimit} regular hours, the next
+ * {@code overtime125Limit} hours at 125% and the rest at 150%.</p>
+ */
+public final class AttendanceMonthSummarizer {
+
+    private AttendanceMonthSummarizer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static AttendanceMonthSummaryDto summarize(String personalId, YearMonth month,
+                                                      List<AttendancePayrollDto> days,
+                                                      double regularDailyLimit, double overtime125Limit) {
+        double regularHours = 0;
+        double hours125 = 0;
+        double hours150 = 0;
+        int travelDays = 0;
+        int presentDays = 0;
+        int sickDays = 0;
+        int vacationDays = 0;
+
+        for (AttendancePayrollDto day : days) {
+            double dailyHours = day.totalHours();
+
+            if (dailyHours <= regularDailyLimit) {
+                regularHours += dailyHours;
+            } else {
+                regularHours += regularDailyLimit;
+                double extra = dailyHours - regularDailyLimit;
+
+                if (extra <= overtime125Limit) {
+                    hours125 += extra;
+                } else {
+                    hours125 += overtime125Limit;
+                    hours150 += (extra - overtime125Limit);
+                }
+            }
+
+            if (day.travelAllow()) {
+                travelDays++;
+            }
+            if (day.status() != null) {
+                switch (day.status().toUpperCase()) {
+                    case "PRESENT" -> presentDays++;
+                    case "SICK" -> sickDays++;
+                    case "VACATION" -> vacationDays++;
+                    default -> { }
+                }
+            }
+        }
+
+        return new AttendanceMonthSummaryDto(
+                personalId, month.getYear(), month.getMonthValue(),
+                regularHours, hours125, hours150,
+                travelDays, presentDays, sickDays, vacationDays, days.size()
+        );
+    }
+}
@@ -8,18 +8,23 @@ import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class AttendanceService {
 
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceSummaryService attendanceSummaryService;
 
     private static final int DEFAULT_YEAR = 2026;
     private static final int DEFAULT_MONTH = 1;
 
-    public AttendanceService(AttendanceRepository attendanceRepository) {
+    public AttendanceService(AttendanceRepository attendanceRepository, AttendanceSummaryService attendanceSummaryService) {
         this.attendanceRepository = attendanceRepository;
+        this.attendanceSummaryService = attendanceSummaryService;
     }
 
     public List<AttendanceDto> getAllRecords(String username,String year, String month,String department,String employeeName) {
@@ -42,6 +47,16 @@ public class AttendanceService {
         return attendanceRepository.getAllRecords(username,startDate,endDate,department,employeeName);
     }
 
+    /**
+     * Returns the months from {@code from} to {@code to} inclusive that still have attendance not sent to payroll.
+     */
+    public Set<YearMonth> getOpenMonths(String username, YearMonth from, YearMonth to) {
+        return attendanceRepository.findOpenPeriods(username, from.atDay(1), to.plusMonths(1).atDay(1))
+                .stream()
+                .map(period -> YearMonth.of(period / 100, period % 100))
+                .collect(Collectors.toSet());
+    }
+
     public List<EmployeeOptionDto> getMapOfEmployees(String username) {
         return attendanceRepository.loadMapOfEmployees(username);
     }
@@ -58,15 +73,10 @@ public class AttendanceService {
                 attendanceDto.status(),
                 attendanceDto.notes()
         );
+        attendanceSummaryService.refresh(username, personalId,
+                attendanceDto.date().getYear(), attendanceDto.date().getMonthValue());
     }
-    public List<AttendancePayrollDto> getAttendancePayrollByPersonalId(String username, AttendanceSummaryRequest request) {
-        return attendanceRepository.loadAttendancePayrollDto(
-                username,
-                request.personalId(),
-                Integer.parseInt(request.year()),
-                Integer.parseInt(request.month())
-        );
-    }
+    @Transactional
     public void updateAttendanceToClosed(User user, AttendanceSummaryRequest request) {
 
         attendanceRepository
@@ -0,0 +1,131 @@
+package com.ms.sw.attendance.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendanceMonthTotals;
+import com.ms.sw.attendance.model.AttendanceMonthSummary;
+import com.ms.sw.attendance.repo.AttendanceMonthSummaryRepository;
+import com.ms.sw.attendance.repo.AttendanceRepository;
+import com.ms.sw.employee.model.Employees;
+import com.ms.sw.employee.repo.EmployeeRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+import static com.ms.sw.employee.service.PayrollConstants.OVERTIME_125_LIMIT;
+import static com.ms.sw.employee.service.PayrollConstants.REGULAR_DAILY_HOURS_LIMIT;
+
+/**
+ * Service responsible for the monthly attendance summaries read by payroll and attendance stats.
+ *
+ * <p>The summary of an employee and month is recalculated whenever attendance of that month is
+ * updated, so readers get one row per employee instead of every day of the month. Months without
+ * a stored summary yet are summed on read. The daily rows are summed by the database, see
+ * {@link AttendanceRepository#sumAttendanceOfEmployees}.</p>
+ */
+@Service
+@Slf4j
+public class AttendanceSummaryService {
+
+    private final AttendanceMonthSummaryRepository summaryRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final EmployeeRepository employeeRepository;
+
+    public AttendanceSummaryService(AttendanceMonthSummaryRepository summaryRepository,
+                                    AttendanceRepository attendanceRepository,
+                                    EmployeeRepository employeeRepository) {
+        this.summaryRepository = summaryRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.employeeRepository = employeeRepository;
+    }
+
+    /**
+     * Recalculates and stores the summary of an employee's month from its daily rows.
+     *
+     * <p>The employee row is locked before summing, so concurrent refreshes of the employee run one
+     * after the other: the last one sums every committed update, and only the first one of a month
+     * inserts its summary row.</p>
+     */
+    @Transactional
+    public void refresh(String username, String personalId, int year, int month) {
+
+        Optional<Employees> employee = employeeRepository.findEntityByPersonalIdAndUsername(personalId, username)
+                .flatMap(found -> employeeRepository.lockById(found.getId()));
+        if (employee.isEmpty()) {
+            return;
+        }
+
+        AttendanceMonthSummaryDto summary = summarize(username, List.of(personalId), year, month,
+                REGULAR_DAILY_HOURS_LIMIT, OVERTIME_125_LIMIT)
+                .getOrDefault(personalId, new AttendanceMonthSummaryDto(
+                        personalId, year, month, 0, 0, 0, 0, 0, 0, 0, 0));
+
+        AttendanceMonthSummary entity = summaryRepository
+                .findSummaryOfEmployee(employee.get().getId(), year, month)
+                .orElseGet(AttendanceMonthSummary::new);
+
+        entity.setEmployee(employee.get());
+        entity.setSummaryYear(year);
+        entity.setSummaryMonth(month);
+        entity.setRegularHours(summary.regularHours());
+        entity.setHours125(summary.hours125());
+        entity.setHours150(summary.hours150());
+        entity.setTravelDays(summary.travelDays());
+        entity.setPresentDays(summary.presentDays());
+        entity.setSickDays(summary.sickDays());
+        entity.setVacationDays(summary.vacationDays());
+        entity.setTotalDays(summary.totalDays());
+        entity.setUpdatedAt(LocalDateTime.now());
+        summaryRepository.save(entity);
+    }
+
+    /**
+     * Returns the month summaries of the given active employees.
+     *
+     * @return summaries keyed by personal ID, employees without attendance in the month are absent
+     */
+    public Map<String, AttendanceMonthSummaryDto> getSummaries(String username, Collection<String> personalIds,
+                                                               int year, int month) {
+
+        Map<String, AttendanceMonthSummaryDto> result = HashMap.newHashMap(personalIds.size());
+        for (AttendanceMonthSummaryDto summary : summaryRepository.findSummaries(username, personalIds, year, month)) {
+            result.put(summary.personalId(), summary);
+        }
+
+        List<String> missing = personalIds.stream().filter(id -> !result.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            log.debug("Summing attendance of {} employees without a stored summary ({}/{})", missing.size(), month, year);
+            result.putAll(summarize(username, missing, year, month, REGULAR_DAILY_HOURS_LIMIT, OVERTIME_125_LIMIT));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the month summary of a single active employee.
+     */
+    public Optional<AttendanceMonthSummaryDto> getSummary(String username, String personalId, int year, int month) {
+        return Optional.ofNullable(getSummaries(username, List.of(personalId), year, month).get(personalId));
+    }
+
+    /**
+     * Sums the daily rows of the given employees with other daily hour limits, without storing the result.
+     */
+    public Map<String, AttendanceMonthSummaryDto> summarize(String username, Collection<String> personalIds,
+                                                            int year, int month,
+                                                            double regularDailyLimit, double overtime125Limit) {
+
+        YearMonth period = YearMonth.of(year, month);
+        LocalDate startDate = period.atDay(1);
+
+        Map<String, AttendanceMonthSummaryDto> result = HashMap.newHashMap(personalIds.size());
+        for (AttendanceMonthTotals totals : attendanceRepository.sumAttendanceOfEmployees(
+                username, personalIds, startDate, startDate.plusMonths(1), regularDailyLimit, overtime125Limit)) {
+            result.put(totals.getPersonalId(), totals.toSummary(period));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ms.sw.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits how many background tasks use database connections at the same time.
+ *
+ * <p>Virtual thread fan-outs can start far more queries than the connection pool holds, which
+ * ends in connection timeouts instead of queueing. Tasks that need a connection acquire a
+ * {@link Permit} first and wait in a fair queue while none is free. The number of permits is the
+ * Hikari maximum pool size minus {@code db.limiter.reserved-connections} (default 2), left for
+ * request threads, or {@code db.limiter.permits} when set.</p>
+ *
+ * <p>Queue depth is exposed as {@code db.limiter.queued}, permits in use as {@code db.limiter.active}
+ * and time spent waiting for a permit in {@code db.limiter.wait}.</p>
+ */
+@Component
+@Slf4j
+public class DbConcurrencyLimiter {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore semaphore;
+    private final int permits;
+    private final Timer waitTimer;
+
+    public DbConcurrencyLimiter(DataSource dataSource,
+                                MeterRegistry meterRegistry,
+                                @Value("${db.limiter.permits:0}") int configuredPermits,
+                                @Value("${db.limiter.reserved-connections:2}") int reservedConnections) {
+
+        this.permits = configuredPermits > 0
+                ? configuredPermits
+                : Math.max(1, poolSize(dataSource) - reservedConnections);
+        this.semaphore = new Semaphore(permits, true);
+
+        Gauge.builder("db.limiter.queued", semaphore, Semaphore::getQueueLength)
+                .description("Tasks waiting for a database permit")
+                .register(meterRegistry);
+        Gauge.builder("db.limiter.active", semaphore, s -> permits - s.availablePermits())
+                .description("Database permits in use")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("db.limiter.wait")
+                .description("Time spent waiting for a database permit")
+                .register(meterRegistry);
+
+        log.info("Database concurrency limited to {} tasks", permits);
+    }
+
+    /**
+     * Waits for a free permit, to be released by closing it.
+     */
+    public Permit acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            semaphore.acquire();
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new Permit(semaphore);
+    }
+
+    /**
+     * Runs the task while holding a permit.
+     */
+    public void run(Runnable task) throws InterruptedException {
+        try (var _ = acquire()) {
+            task.run();
+        }
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * Permit held by a task, released once on close.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -1,25 +1,58 @@
 package com.ms.sw.employee.controller;
 
 import com.ms.sw.attendance.dto.AttendanceSummaryRequest;
-import com.ms.sw.attendance.service.AttendanceService;
 import com.ms.sw.config.customUtils.CurrentUser;
+import com.ms.sw.employee.dto.PayrollRunProgressDto;
+import com.ms.sw.employee.dto.PayrollYearTotalsDto;
+import com.ms.sw.employee.dto.PayrollPreviewRequest;
+import com.ms.sw.employee.dto.PayrollRetroProgressDto;
+import com.ms.sw.employee.dto.PayrollRetroRequest;
+import com.ms.sw.employee.dto.PayrollRunRequest;
+import com.ms.sw.employee.dto.PayrollSimulationDto;
+import com.ms.sw.employee.dto.PayrollSimulationRequest;
 import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.dto.SalaryDistributionDto;
+import com.ms.sw.employee.dto.SalaryRetroDifferenceDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.employee.dto.SalarySlipJobDto;
 import com.ms.sw.employee.dto.SalarySlipDto;
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import com.ms.sw.employee.dto.SalarySlipSearchPageDto;
 import com.ms.sw.employee.dto.SalaryStatsDto;
+import com.ms.sw.employee.dto.SalaryTrendPointDto;
 import com.ms.sw.employee.dto.SalaryUpdateDetailsRequestDto;
-import com.ms.sw.employee.model.Salary;
+import com.ms.sw.employee.service.AnnualReportService;
+import com.ms.sw.employee.service.PayrollRetroService;
+import com.ms.sw.employee.service.PayrollRunService;
+import com.ms.sw.employee.service.PayrollSimulationService;
+import com.ms.sw.employee.service.SalarySlipArchiveService;
+import com.ms.sw.employee.service.SalarySlipContentCache;
+import com.ms.sw.employee.service.SalarySlipJobService;
+import com.ms.sw.employee.service.SalarySlipMaterializer;
 import com.ms.sw.employee.service.SalaryService;
 import com.ms.sw.employee.service.SalaryStatsService;
+import com.ms.sw.employee.service.SalaryTrendService;
 import com.ms.sw.user.model.User;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -27,28 +60,113 @@ import java.util.List;
 @Slf4j
 public class SalaryController {
 
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final SalaryService salaryService;
-    private final AttendanceService attendanceService;
     private final SalaryStatsService salaryStatsService;
+    private final PayrollRunService payrollRunService;
+    private final SalarySlipJobService salarySlipJobService;
+    private final SalarySlipArchiveService salarySlipArchiveService;
+    private final PayrollSimulationService payrollSimulationService;
+    private final PayrollRetroService payrollRetroService;
+    private final AnnualReportService annualReportService;
+    private final SalaryTrendService salaryTrendService;
+    private final SalarySlipMaterializer salarySlipMaterializer;
+    private final SalarySlipContentCache salarySlipContentCache;
 
-    public SalaryController(SalaryService salaryService,AttendanceService attendanceService,SalaryStatsService salaryStatsService) {
+    public SalaryController(SalaryService salaryService,SalaryStatsService salaryStatsService,PayrollRunService payrollRunService,SalarySlipJobService salarySlipJobService,SalarySlipArchiveService salarySlipArchiveService,PayrollSimulationService payrollSimulationService,PayrollRetroService payrollRetroService,AnnualReportService annualReportService,SalaryTrendService salaryTrendService,SalarySlipMaterializer salarySlipMaterializer,SalarySlipContentCache salarySlipContentCache) {
         this.salaryService = salaryService;
-        this.attendanceService = attendanceService;
         this.salaryStatsService = salaryStatsService;
+        this.payrollRunService = payrollRunService;
+        this.salarySlipJobService = salarySlipJobService;
+        this.salarySlipArchiveService = salarySlipArchiveService;
+        this.payrollSimulationService = payrollSimulationService;
+        this.payrollRetroService = payrollRetroService;
+        this.annualReportService = annualReportService;
+        this.salaryTrendService = salaryTrendService;
+        this.salarySlipMaterializer = salarySlipMaterializer;
+        this.salarySlipContentCache = salarySlipContentCache;
     }
 
     /**
      * Calculate salary for employee via {@link AttendanceSummaryRequest}.
-     * After calculation salary details saves in database.
+     * After calculation salary details saves in database and the salary slip PDF is rendered in the background,
+     * its progress is available through {@link #getSlipJob(User, Long)}.
      */
     @PostMapping("/payroll")
-    @Transactional
-    public ResponseEntity<Void> payroll(@CurrentUser User user, @RequestBody AttendanceSummaryRequest request){
+    public ResponseEntity<SalarySlipJobDto> payroll(@CurrentUser User user, @RequestBody AttendanceSummaryRequest request){
         log.info("POST /salary/payroll -> payroll -> user={}",user.getUsername());
 
-        salaryService.fetchSalaryData(user,request);
-        attendanceService.updateAttendanceToClosed(user,request);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.accepted().body(salaryService.fetchSalaryData(user,request));
+    }
+
+    /**
+     * Starts a month-end payroll run for every active employee of the user.
+     * Progress and the final summary are published over STOMP on {@code /topic/payroll-run/{username}}.
+     */
+    @PostMapping("/payroll/run")
+    public ResponseEntity<PayrollRunProgressDto> payrollRun(@CurrentUser User user, @RequestBody PayrollRunRequest request){
+        log.info("POST /salary/payroll/run -> payrollRun -> user={}, year={}, month={}",user.getUsername(),request.year(),request.month());
+
+        var progress = payrollRunService.startRun(user, request.year(), request.month());
+        return ResponseEntity.accepted().body(progress);
+    }
+
+    /**
+     * Resumes a payroll run from its last checkpoint, employees already done are skipped.
+     */
+    @PostMapping("/payroll/run/{runId}/resume")
+    public ResponseEntity<PayrollRunProgressDto> resumePayrollRun(@CurrentUser User user, @PathVariable String runId){
+        log.info("POST /salary/payroll/run/{}/resume -> resumePayrollRun -> user={}",runId,user.getUsername());
+
+        return payrollRunService.resumeRun(user, runId)
+                .map(progress -> ResponseEntity.accepted().body(progress))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Calculates the salary slip of an employee without saving it, rendering its PDF or notifying.
+     * Salary details sent with the request are used instead of the stored ones.
+     */
+    @PostMapping("/payroll/preview")
+    public ResponseEntity<SalarySlipData> previewPayroll(@CurrentUser User user, @RequestBody PayrollPreviewRequest request){
+        log.debug("POST /salary/payroll/preview -> previewPayroll -> user={}, personalId={}",user.getUsername(),request.personalId());
+
+        return ResponseEntity.ok(salaryService.previewSalary(user, request));
+    }
+
+    /**
+     * Simulates the payroll of a month with changed salaries or payroll constants, nothing is persisted.
+     */
+    @PostMapping("/payroll/simulate")
+    public ResponseEntity<PayrollSimulationDto> simulatePayroll(@CurrentUser User user, @RequestBody PayrollSimulationRequest request){
+        log.info("POST /salary/payroll/simulate -> simulatePayroll -> user={}, year={}, month={}",user.getUsername(),request.year(),request.month());
+
+        return ResponseEntity.ok(payrollSimulationService.simulate(user, request));
+    }
+
+    /**
+     * Recalculates already paid months of one employee, or of every employee when no personal ID is given,
+     * with the current salary details. Progress is published over STOMP on {@code /topic/payroll-retro/{username}}.
+     */
+    @PostMapping("/payroll/retro")
+    public ResponseEntity<PayrollRetroProgressDto> retroPayroll(@CurrentUser User user, @RequestBody PayrollRetroRequest request){
+        log.info("POST /salary/payroll/retro -> retroPayroll -> user={}, personalId={}",user.getUsername(),request.personalId());
+
+        return ResponseEntity.accepted().body(payrollRetroService.startRetro(user, request));
+    }
+
+    /**
+     * Net differences recorded by a retroactive recalculation, only changed salaries are listed.
+     */
+    @GetMapping("/payroll/retro/{retroId}")
+    public ResponseEntity<List<SalaryRetroDifferenceDto>> getRetroDifferences(@CurrentUser User user, @PathVariable String retroId){
+        log.info("GET /salary/payroll/retro/{} -> getRetroDifferences -> user={}",retroId,user.getUsername());
+
+        return ResponseEntity.ok(payrollRetroService.getDifferences(user, retroId));
     }
 
     @GetMapping("/{year:[0-9]+}/{month:[0-9]+}")
@@ -62,6 +180,40 @@ public class SalaryController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * Total, average and max net salary of every month in the range, in one request instead of one per month.
+     */
+    @GetMapping("/trend")
+    public ResponseEntity<List<SalaryTrendPointDto>> getSalaryTrend(
+            @CurrentUser User user,
+            @RequestParam int fromYear,
+            @RequestParam int fromMonth,
+            @RequestParam int toYear,
+            @RequestParam int toMonth) {
+
+        log.info("GET /salary/trend -> getSalaryTrend -> user={}, from={}/{}, to={}/{}",
+                user.getUsername(), fromMonth, fromYear, toMonth, toYear);
+        return ResponseEntity.ok(salaryTrendService.getTrend(user.getUsername(), fromYear, fromMonth, toYear, toMonth));
+    }
+
+    /**
+     * Net salary distribution of a range of months, of one department or of all departments.
+     */
+    @GetMapping("/distribution")
+    public ResponseEntity<SalaryDistributionDto> getSalaryDistribution(
+            @CurrentUser User user,
+            @RequestParam int fromYear,
+            @RequestParam int fromMonth,
+            @RequestParam int toYear,
+            @RequestParam int toMonth,
+            @RequestParam(required = false) String department) {
+
+        log.info("GET /salary/distribution -> getSalaryDistribution -> user={}, from={}/{}, to={}/{}, department={}",
+                user.getUsername(), fromMonth, fromYear, toMonth, toYear, department);
+        return ResponseEntity.ok(salaryStatsService.getSalaryDistribution(
+                user, fromYear * 100 + fromMonth, toYear * 100 + toMonth, department));
+    }
+
     @GetMapping("/details/{personalId}")
     public ResponseEntity<SalaryDetailsDto> getSalaryDetailsById(@CurrentUser User user, @PathVariable String personalId) {
         log.info("GET /details/{} -> getSalaryDetailsById -> user={}",personalId,user.getUsername());
@@ -85,45 +237,283 @@ public class SalaryController {
 
     @GetMapping("/slips/search")
     public ResponseEntity<List<SalarySlipDto>> searchSlips(
+            @CurrentUser User user,
             @RequestParam String personalId,
             @RequestParam int year,
             @RequestParam int month) {
-        log.info("GET /slips/search -> personalId={}, year={}, month={}", personalId, year, month);
-        return ResponseEntity.ok(salaryStatsService.searchSalarySlips(personalId, year, month));
+        log.info("GET /slips/search -> user={}, personalId={}, year={}, month={}", user.getUsername(), personalId, year, month);
+        return ResponseEntity.ok(salaryStatsService.searchSalarySlips(user.getUsername(), personalId, year, month));
+    }
+
+    /**
+     * Salary slips of all employees of a range of months, filtered by employee and department, one page at a time.
+     */
+    @GetMapping("/slips")
+    public ResponseEntity<SalarySlipSearchPageDto> listSlips(
+            @CurrentUser User user,
+            @RequestParam int fromYear,
+            @RequestParam int fromMonth,
+            @RequestParam int toYear,
+            @RequestParam int toMonth,
+            @RequestParam(required = false) String personalId,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.info("GET /salary/slips -> listSlips -> user={}, from={}/{}, to={}/{}, personalId={}, department={}",
+                user.getUsername(), fromMonth, fromYear, toMonth, toYear, personalId, department);
+        return ResponseEntity.ok(salaryStatsService.searchSalarySlips(user.getUsername(), personalId, department,
+                fromYear, fromMonth, toYear, toMonth, cursor, size));
+    }
+
+    @GetMapping("/slips/jobs/{jobId}")
+    public ResponseEntity<SalarySlipJobDto> getSlipJob(@CurrentUser User user, @PathVariable Long jobId) {
+        log.info("GET /slips/jobs/{} -> getSlipJob -> user={}", jobId, user.getUsername());
+
+        return salarySlipJobService.getJobStatus(user.getUsername(), jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams a ZIP of every salary slip the user generated for the month.
+     * The response is written synchronously, so large archives are not cut by the async request timeout.
+     */
+    @GetMapping("/slips/export/{year:[0-9]+}/{month:[0-9]+}")
+    public void exportSlips(@CurrentUser User user, @PathVariable int year, @PathVariable int month,
+                            HttpServletResponse response) throws IOException {
+        log.info("GET /slips/export/{}/{} -> exportSlips -> user={}", year, month, user.getUsername());
+
+        List<String> slipPaths = salarySlipArchiveService.getSlipPaths(user.getUsername(), year, month);
+        List<SalarySlipFileDto> deferredSlips = salarySlipArchiveService.getDeferredSlips(user.getUsername(), year, month);
+        if (slipPaths.isEmpty() && deferredSlips.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String fileName = String.format("salary-slips_%d-%02d.zip", year, month);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        int written = salarySlipArchiveService.writeArchive(user.getUsername(), slipPaths, deferredSlips,
+                response.getOutputStream());
+        log.info("Exported {} of {} salary slips for {}/{} -> user={}",
+                written, slipPaths.size() + deferredSlips.size(), month, year, user.getUsername());
+    }
+
+    /**
+     * Year-to-date payroll totals of every employee of the user.
+     */
+    @GetMapping("/ytd/{year:[0-9]+}")
+    public ResponseEntity<List<PayrollYearTotalsDto>> getYearTotals(@CurrentUser User user, @PathVariable int year) {
+        log.info("GET /ytd/{} -> getYearTotals -> user={}", year, user.getUsername());
+
+        return ResponseEntity.ok(annualReportService.getYearTotals(user.getUsername(), year));
+    }
+
+    /**
+     * Streams a ZIP with the annual payroll report of every employee of the user.
+     * Like {@link #exportSlips}, the response is written synchronously.
+     */
+    @GetMapping("/reports/annual/{year:[0-9]+}")
+    public void exportAnnualReports(@CurrentUser User user, @PathVariable int year,
+                                    HttpServletResponse response) throws IOException {
+        log.info("GET /reports/annual/{} -> exportAnnualReports -> user={}", year, user.getUsername());
+
+        List<PayrollYearTotalsDto> totals = annualReportService.getYearTotals(user.getUsername(), year);
+        if (totals.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String fileName = String.format("annual-reports_%d.zip", year);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        int written = annualReportService.writeAnnualReports(user, totals, response.getOutputStream());
+        log.info("Exported {} annual reports for {} -> user={}", written, year, user.getUsername());
     }
 
     @GetMapping("/slips/view/{salaryId}")
-    public ResponseEntity<Resource> viewSalaryPdf(@PathVariable Long salaryId) {
-        return serveFile(salaryId, "inline");
+    public ResponseEntity<StreamingResponseBody> viewSalaryPdf(@CurrentUser User user, @PathVariable Long salaryId,
+                                                               ServletWebRequest webRequest) {
+        return serveFile(user, salaryId, "inline", webRequest);
     }
 
     @GetMapping("/slips/download/{salaryId}")
-    public ResponseEntity<Resource> downloadSalaryPdf(@PathVariable Long salaryId) {
-        return serveFile(salaryId, "attachment");
+    public ResponseEntity<StreamingResponseBody> downloadSalaryPdf(@CurrentUser User user, @PathVariable Long salaryId,
+                                                                   ServletWebRequest webRequest) {
+        return serveFile(user, salaryId, "attachment", webRequest);
     }
 
-    private ResponseEntity<Resource> serveFile(Long salaryId, String dispositionType) {
-        try {
-            Salary salary = salaryStatsService.getSalaryById(salaryId);
-            String path = salary.getPathOfTlush();
+    /**
+     * Serves a salary slip owned by the user.
+     *
+     * <p>Slips in {@link SalarySlipContentCache} are served from memory without touching the database.
+     * Otherwise conditional requests are answered with 304 from the database row alone, and slips small
+     * enough are read into the cache. A single byte range is answered with 206, multiple ranges fall back
+     * to the full file. An uncached file is sent with Tomcat sendfile when the connector supports it,
+     * otherwise it is copied through the response stream, see {@link #transferFile}. A deferred slip is
+     * rendered by {@link SalarySlipMaterializer} on the first request that needs its content and is held
+     * in its cache until the response is written, so it is always streamed rather than sent with sendfile.</p>
+     */
+    private ResponseEntity<StreamingResponseBody> serveFile(User user, Long salaryId, String dispositionType,
+                                                            ServletWebRequest webRequest) {
+        var cached = salarySlipContentCache.get(user.getUsername(), salaryId).orElse(null);
+        long generation = salarySlipContentCache.generation();
+
+        var slip = cached != null
+                ? cached.slip()
+                : salaryStatsService.getSlipFile(user.getUsername(), salaryId).orElse(null);
+        if (slip == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean deferred = slip.path() == null || slip.path().isEmpty();
+        if (cached == null && deferred && slip.slipGeneratedAt() == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            if (path == null || path.isEmpty()) {
+        String etag = slip.etag();
+        Instant lastModified = slip.lastModified();
+        if (webRequest.checkNotModified(etag, lastModified.toEpochMilli())) {
+            // 304 or 412 and the validators are already set on the response
+            return null;
+        }
+
+        Path file = null;
+        SalarySlipMaterializer.SlipFile slipFile = null;
+        byte[] content;
+        String fileName;
+        long length;
+        if (cached != null) {
+            content = cached.content();
+            fileName = cached.fileName();
+            length = content.length;
+        } else {
+            try {
+                if (deferred) {
+                    slipFile = salarySlipMaterializer.materialize(user.getUsername(), slip).orElse(null);
+                    if (slipFile == null) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    file = slipFile.path().toRealPath();
+                    fileName = slipFile.fileName();
+                } else {
+                    file = Path.of(slip.path()).toRealPath();
+                    fileName = file.getFileName().toString();
+                }
+                length = Files.size(file);
+                content = salarySlipContentCache.fits(length) ? Files.readAllBytes(file) : null;
+            } catch (IOException e) {
+                release(slipFile);
                 return ResponseEntity.notFound().build();
             }
+            if (content != null) {
+                release(slipFile);
+                slipFile = null;
+                salarySlipContentCache.put(generation, user.getUsername(), slip, fileName, content);
+                length = content.length;
+            }
+        }
 
-            Resource resource = new FileSystemResource(path);
-            if (!resource.exists()) {
-                return ResponseEntity.notFound().build();
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        HttpRange range = requestedRange(webRequest.getRequest(), etag);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                status = HttpStatus.PARTIAL_CONTENT;
+            } catch (IllegalArgumentException e) {
+                release(slipFile);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+        }
+
+        var response = ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(end - start + 1)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + fileName + "\"");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        int offset = (int) start;
+        int size = (int) (end - start + 1);
+        if (content != null) {
+            byte[] body = content;
+            return response.body(out -> out.write(body, offset, size));
+        }
+
+        // Tomcat sends the file after this method returns, when a deferred slip may already be evicted
+        HttpServletRequest request = webRequest.getRequest();
+        if (slipFile == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return response.build();
+        }
+
+        Path source = file;
+        SalarySlipMaterializer.SlipFile held = slipFile;
+        long position = start;
+        long count = end - start + 1;
+        return response.body(out -> {
+            try (held) {
+                transferFile(source, position, count, out);
             }
+        });
+    }
 
-            String fileName = path.substring(path.lastIndexOf("/") + 1);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + fileName + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            log.error("Error serving file: ", e);
-            return ResponseEntity.internalServerError().build();
+    private static void release(SalarySlipMaterializer.SlipFile slipFile) {
+        if (slipFile != null) {
+            slipFile.close();
+        }
+    }
+
+    /**
+     * Single range of the request, ignored when several ranges are requested or {@code If-Range} is stale.
+     */
+    private HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.getFirst() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies {@code count} bytes of the file from {@code position} to the response stream. This is not
+     * zero-copy: the target is a channel over the servlet stream, so {@link FileChannel#transferTo} reads
+     * the file into a buffer and writes it to the stream. Only the sendfile path avoids the copy.
+     */
+    private void transferFile(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < count) {
+                long transferred = channel.transferTo(position + sent, count - sent, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                sent += transferred;
+            }
         }
     }
 }
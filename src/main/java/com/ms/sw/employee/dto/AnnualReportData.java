@@ -0,0 +1,15 @@
+package com.ms.sw.employee.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Everything printed on the annual payroll report of one employee.
+ */
+public record AnnualReportData(
+        String companyName,
+        String companyId,
+        String companyAddress,
+        PayrollYearTotalsDto totals,
+        LocalDate generationDate
+) {
+}
@@ -0,0 +1,26 @@
+package com.ms.sw.employee.dto;
+
+public record EmployeeSalaryDetailsDto(
+        String personalId,
+        String pensionFund,
+        String providentFund,
+        String insuranceCompany,
+        double totalSeekDays,
+        double totalVacationDays,
+        double salaryPerHour,
+        double seniority,
+        double creditPoints
+) {
+    public SalaryDetailsDto toSalaryDetailsDto() {
+        return new SalaryDetailsDto(
+                pensionFund,
+                providentFund,
+                insuranceCompany,
+                totalSeekDays,
+                totalVacationDays,
+                salaryPerHour,
+                seniority,
+                creditPoints
+        );
+    }
+}
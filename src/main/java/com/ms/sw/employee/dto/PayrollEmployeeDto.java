@@ -0,0 +1,12 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollEmployeeDto(
+        Long employeeId,
+        String personalId,
+        String employeeName,
+        String department
+) {
+    public EmployeePayrollDto toEmployeePayrollDto() {
+        return new EmployeePayrollDto(personalId, employeeName, department);
+    }
+}
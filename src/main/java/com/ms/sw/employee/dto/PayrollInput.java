@@ -0,0 +1,19 @@
+package com.ms.sw.employee.dto;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+
+/**
+ * All rows needed to calculate the payroll of a single employee for one month.
+ *
+ * @param employeeId    id of the {@code Employees} row, used to link the saved salary without re-fetching it
+ * @param employee      employee payroll details
+ * @param salaryDetails salary details, {@code null} if the employee has none
+ * @param attendance    attendance summary of the month, {@code null} if the employee has no attendance
+ */
+public record PayrollInput(
+        long employeeId,
+        EmployeePayrollDto employee,
+        SalaryDetailsDto salaryDetails,
+        AttendanceMonthSummaryDto attendance
+) {
+}
@@ -0,0 +1,16 @@
+package com.ms.sw.employee.dto;
+
+/**
+ * Payroll constants to override in a simulation, {@code null} keeps the current value.
+ */
+public record PayrollParametersOverride(
+        Double dailyTravelRate,
+        Double pensionEmployeeRate,
+        Double pensionEmployerRate,
+        Double severanceEmployerRate,
+        Double regularDailyHoursLimit,
+        Double overtime125Limit,
+        Double rate125,
+        Double rate150
+) {
+}
@@ -0,0 +1,14 @@
+package com.ms.sw.employee.dto;
+
+/**
+ * Dry-run payroll calculation of a single employee.
+ *
+ * @param salaryDetails salary details to calculate with instead of the stored ones, may be {@code null}
+ */
+public record PayrollPreviewRequest(
+        String personalId,
+        int year,
+        int month,
+        SalaryDetailsDto salaryDetails
+) {
+}
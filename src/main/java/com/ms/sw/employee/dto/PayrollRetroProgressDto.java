@@ -0,0 +1,13 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollRetroProgressDto(
+        String retroId,
+        int months,
+        int processedMonths,
+        int failedMonths,
+        int recalculated,
+        int changed,
+        double netDifference,
+        boolean completed
+) {
+}
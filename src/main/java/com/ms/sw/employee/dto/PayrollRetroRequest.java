@@ -0,0 +1,15 @@
+package com.ms.sw.employee.dto;
+
+/**
+ * Months to recalculate retroactively, from {@code fromMonth/fromYear} to {@code toMonth/toYear} inclusive.
+ *
+ * @param personalId employee to recalculate, {@code null} for every employee of the user
+ */
+public record PayrollRetroRequest(
+        String personalId,
+        int fromYear,
+        int fromMonth,
+        int toYear,
+        int toMonth
+) {
+}
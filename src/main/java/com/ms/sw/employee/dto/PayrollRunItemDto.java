@@ -0,0 +1,12 @@
+package com.ms.sw.employee.dto;
+
+import com.ms.sw.employee.model.PayrollRunItemStatus;
+
+public record PayrollRunItemDto(
+        Long id,
+        String personalId,
+        String employeeName,
+        String department,
+        PayrollRunItemStatus status
+) {
+}
@@ -0,0 +1,12 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollRunProgressDto(
+        String runId,
+        int year,
+        int month,
+        int total,
+        int processed,
+        int succeeded,
+        int failed
+) {
+}
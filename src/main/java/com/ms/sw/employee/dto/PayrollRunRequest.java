@@ -0,0 +1,7 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollRunRequest(
+        int year,
+        int month
+) {
+}
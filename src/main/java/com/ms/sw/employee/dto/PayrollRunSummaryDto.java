@@ -0,0 +1,15 @@
+package com.ms.sw.employee.dto;
+
+import java.util.List;
+
+public record PayrollRunSummaryDto(
+        String runId,
+        int year,
+        int month,
+        int total,
+        int succeeded,
+        int failed,
+        List<String> failedPersonalIds,
+        long durationMillis
+) {
+}
@@ -0,0 +1,23 @@
+package com.ms.sw.employee.dto;
+
+import java.util.List;
+
+/**
+ * Result of a payroll simulation.
+ *
+ * @param baseline         totals with the current salaries and constants
+ * @param simulated        totals with the requested changes
+ * @param delta            simulated minus baseline
+ * @param skippedPersonalIds active employees without attendance or salary details for the month
+ */
+public record PayrollSimulationDto(
+        int year,
+        int month,
+        int employees,
+        PayrollTotalsDto baseline,
+        PayrollTotalsDto simulated,
+        PayrollTotalsDto delta,
+        List<String> skippedPersonalIds,
+        long durationMillis
+) {
+}
@@ -0,0 +1,19 @@
+package com.ms.sw.employee.dto;
+
+import java.util.Map;
+
+/**
+ * What-if payroll simulation of a month.
+ *
+ * @param salaryRaisePercent raise applied to the hourly salary of every employee, may be {@code null}
+ * @param salaryPerHour      hourly salary per personal ID, replaces the raise for those employees
+ * @param parameters         payroll constants to override, may be {@code null}
+ */
+public record PayrollSimulationRequest(
+        int year,
+        int month,
+        Double salaryRaisePercent,
+        Map<String, Double> salaryPerHour,
+        PayrollParametersOverride parameters
+) {
+}
@@ -0,0 +1,8 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollTotalsDto(
+        double grossSalary,
+        double netSalary,
+        double totalEmployerCost
+) {
+}
@@ -0,0 +1,19 @@
+package com.ms.sw.employee.dto;
+
+public record PayrollYearTotalsDto(
+        String personalId,
+        String employeeName,
+        String department,
+        int year,
+        int months,
+        double grossSalary,
+        double incomeTax,
+        double nationalInsurance,
+        double employeePension,
+        double netSalary,
+        double employerPension,
+        double employerSeverance,
+        double employerNi,
+        double totalEmployerCost
+) {
+}
@@ -10,4 +10,9 @@ public record SalaryDetailsDto(
         double seniority,
         double creditPoints
 ) {
+
+    public SalaryDetailsDto withSalaryPerHour(double newSalaryPerHour) {
+        return new SalaryDetailsDto(pensionFund, providentFund, insuranceCompany, totalSeekDays,
+                totalVacationDays, newSalaryPerHour, seniority, creditPoints);
+    }
 }
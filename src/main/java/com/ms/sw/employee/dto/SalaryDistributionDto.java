@@ -0,0 +1,13 @@
+package com.ms.sw.employee.dto;
+
+public record SalaryDistributionDto(
+        long count,
+        double totalSalary,
+        double avgSalary,
+        double minSalary,
+        double maxSalary,
+        double medianSalary,
+        double p90Salary,
+        double p99Salary
+) {
+}
@@ -0,0 +1,7 @@
+package com.ms.sw.employee.dto;
+
+public record SalaryRangeDto(
+        Double minSalary,
+        Double maxSalary
+) {
+}
@@ -0,0 +1,11 @@
+package com.ms.sw.employee.dto;
+
+public record SalaryRecordDto(
+        Long salaryId,
+        Long employeeId,
+        String personalId,
+        int year,
+        int month,
+        double salaryAmount
+) {
+}
@@ -0,0 +1,16 @@
+package com.ms.sw.employee.dto;
+
+import java.time.LocalDateTime;
+
+public record SalaryRetroDifferenceDto(
+        Long salaryId,
+        String personalId,
+        String employeeName,
+        int year,
+        int month,
+        double previousNet,
+        double recalculatedNet,
+        double difference,
+        LocalDateTime createdAt
+) {
+}
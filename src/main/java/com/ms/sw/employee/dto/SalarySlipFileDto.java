@@ -0,0 +1,32 @@
+package com.ms.sw.employee.dto;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Location and version of a rendered salary slip.
+ *
+ * <p>Slips rendered before {@code slipGeneratedAt} existed were written right before their salary
+ * record was created, so the record creation time stands in for them.</p>
+ */
+public record SalarySlipFileDto(
+        Long salaryId,
+        String path,
+        Instant slipGeneratedAt,
+        Timestamp createdAt
+) {
+
+    public Instant lastModified() {
+        if (slipGeneratedAt != null) {
+            return slipGeneratedAt;
+        }
+        return createdAt != null ? createdAt.toInstant() : Instant.EPOCH;
+    }
+
+    /**
+     * Strong entity tag, a re-rendered slip always gets a new generation time.
+     */
+    public String etag() {
+        return "\"" + salaryId + "-" + lastModified().toEpochMilli() + "\"";
+    }
+}
@@ -0,0 +1,15 @@
+package com.ms.sw.employee.dto;
+
+import com.ms.sw.employee.model.SalarySlipJobStatus;
+
+import java.time.LocalDateTime;
+
+public record SalarySlipJobDto(
+        Long jobId,
+        Long salaryId,
+        SalarySlipJobStatus status,
+        String errorMessage,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt
+) {
+}
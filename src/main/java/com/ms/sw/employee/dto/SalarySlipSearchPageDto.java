@@ -0,0 +1,12 @@
+package com.ms.sw.employee.dto;
+
+import java.util.List;
+
+/**
+ * One page of a salary slip search, {@code nextCursor} is {@code null} on the last page.
+ */
+public record SalarySlipSearchPageDto(
+        List<SalarySlipSearchRowDto> slips,
+        String nextCursor
+) {
+}
@@ -0,0 +1,13 @@
+package com.ms.sw.employee.dto;
+
+public record SalarySlipSearchRowDto(
+        Long salaryId,
+        String personalId,
+        String employeeName,
+        String department,
+        int year,
+        int month,
+        double salaryAmount,
+        boolean slipReady
+) {
+}
@@ -0,0 +1,10 @@
+package com.ms.sw.employee.dto;
+
+public record SalaryTrendPointDto(
+        int year,
+        int month,
+        Double totalSalary,
+        Double avgSalary,
+        Double maxSalary
+) {
+}
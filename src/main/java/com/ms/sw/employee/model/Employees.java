@@ -12,7 +12,7 @@ import lombok.ToString;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", indexes = @Index(name = "idx_employees_user", columnList = "user_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,48 @@
+package com.ms.sw.employee.model;
+
+import com.ms.sw.user.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Month-end payroll run over the active employees of a user, progress is kept per employee in {@link PayrollRunItem}.
+ */
+@Entity
+@Table(name = "payroll_run")
+@Data
+public class PayrollRun {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "payroll_year", nullable = false)
+    private int payrollYear;
+
+    @Column(name = "payroll_month", nullable = false)
+    private int payrollMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private PayrollRunStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = PayrollRunStatus.RUNNING;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ms.sw.employee.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a single employee in a {@link PayrollRun}.
+ */
+@Entity
+@Table(
+        name = "payroll_run_item",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"run_id", "personal_id"}),
+        indexes = @Index(name = "idx_payroll_run_item_run_status", columnList = "run_id, status")
+)
+@Data
+public class PayrollRunItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "run_id", nullable = false)
+    private PayrollRun run;
+
+    @Column(name = "personal_id", nullable = false)
+    private String personalId;
+
+    @Column(name = "employee_name")
+    private String employeeName;
+
+    @Column(name = "department")
+    private String department;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private PayrollRunItemStatus status = PayrollRunItemStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.ms.sw.employee.model;
+
+public enum PayrollRunItemStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
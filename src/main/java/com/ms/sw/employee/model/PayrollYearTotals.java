@@ -0,0 +1,62 @@
+package com.ms.sw.employee.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Year-to-date payroll totals of an employee, kept up to date whenever a salary of the year is saved.
+ */
+@Entity
+@Table(
+        name = "payroll_year_totals",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "payroll_year"})
+)
+@Data
+public class PayrollYearTotals {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employees employee;
+
+    @Column(name = "payroll_year", nullable = false)
+    private int payrollYear;
+
+    @Column(name = "months", nullable = false)
+    private int months;
+
+    @Column(name = "gross_salary", nullable = false)
+    private double grossSalary;
+
+    @Column(name = "income_tax", nullable = false)
+    private double incomeTax;
+
+    @Column(name = "national_insurance", nullable = false)
+    private double nationalInsurance;
+
+    @Column(name = "employee_pension", nullable = false)
+    private double employeePension;
+
+    @Column(name = "net_salary", nullable = false)
+    private double netSalary;
+
+    @Column(name = "employer_pension", nullable = false)
+    private double employerPension;
+
+    @Column(name = "employer_severance", nullable = false)
+    private double employerSeverance;
+
+    @Column(name = "employer_ni", nullable = false)
+    private double employerNi;
+
+    @Column(name = "total_employer_cost", nullable = false)
+    private double totalEmployerCost;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
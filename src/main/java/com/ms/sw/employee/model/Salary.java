@@ -4,10 +4,16 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "salary")
+@Table(
+        name = "salary",
+        indexes = {
+                @Index(name = "idx_salary_employee_period_id", columnList = "employee_id, salary_year, salary_month, id")
+        }
+)
 @Data
 public class Salary {
 
@@ -34,6 +40,15 @@ public class Salary {
     @Column(name = "path_of_tlush")
     private String pathOfTlush;
 
+    @Column(name = "slip_generated_at")
+    private Instant slipGeneratedAt;
+
+    @Column(name = "input_fingerprint", length = 64)
+    private String inputFingerprint;
+
+    @Embedded
+    private SalaryBreakdown breakdown;
+
     @Column(name = "created_at")
     private Timestamp createdAt;
 
@@ -0,0 +1,172 @@
+package com.ms.sw.employee.model;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Calculated salary slip breakdown stored with its {@link Salary} record.
+ *
+ * <p>Columns are nullable, records saved before the breakdown was stored have none.
+ * Together with the record and its owner it holds everything needed to render the slip again,
+ * see {@link #toSlipData}.</p>
+ */
+@Embeddable
+@Data
+public class SalaryBreakdown {
+
+    @Column(name = "employee_name")
+    private String employeeName;
+
+    @Column(name = "department")
+    private String department;
+
+    @Column(name = "pension_fund")
+    private String pensionFund;
+
+    @Column(name = "provident_fund")
+    private String providentFund;
+
+    @Column(name = "insurance_company")
+    private String insuranceCompany;
+
+    @Column(name = "regular_hours")
+    private Double regularHours;
+
+    @Column(name = "overtime_125_hours")
+    private Double overtime125Hours;
+
+    @Column(name = "overtime_150_hours")
+    private Double overtime150Hours;
+
+    @Column(name = "travel_days")
+    private Double travelDays;
+
+    @Column(name = "hourly_rate")
+    private Double hourlyRate;
+
+    @Column(name = "regular_pay")
+    private Double regularPay;
+
+    @Column(name = "overtime_125_pay")
+    private Double overtime125Pay;
+
+    @Column(name = "overtime_150_pay")
+    private Double overtime150Pay;
+
+    @Column(name = "travel_allowance")
+    private Double travelAllowance;
+
+    @Column(name = "gross_salary")
+    private Double grossSalary;
+
+    @Column(name = "employee_pension")
+    private Double employeePension;
+
+    @Column(name = "national_insurance")
+    private Double nationalInsurance;
+
+    @Column(name = "taxable_income")
+    private Double taxableIncome;
+
+    @Column(name = "income_tax")
+    private Double incomeTax;
+
+    @Column(name = "total_deductions")
+    private Double totalDeductions;
+
+    @Column(name = "credit_points")
+    private Double creditPoints;
+
+    @Column(name = "employer_pension")
+    private Double employerPension;
+
+    @Column(name = "employer_severance")
+    private Double employerSeverance;
+
+    @Column(name = "employer_ni")
+    private Double employerNi;
+
+    @Column(name = "total_employer_cost")
+    private Double totalEmployerCost;
+
+    public static SalaryBreakdown of(SalarySlipData data) {
+        SalaryBreakdown breakdown = new SalaryBreakdown();
+        breakdown.setEmployeeName(data.employeeName());
+        breakdown.setDepartment(data.department());
+        breakdown.setPensionFund(data.pensionFund());
+        breakdown.setProvidentFund(data.providentFund());
+        breakdown.setInsuranceCompany(data.insuranceCompany());
+        breakdown.setRegularHours(data.regularHours());
+        breakdown.setOvertime125Hours(data.overtime125Hours());
+        breakdown.setOvertime150Hours(data.overtime150Hours());
+        breakdown.setTravelDays(data.travelDays());
+        breakdown.setHourlyRate(data.hourlyRate());
+        breakdown.setRegularPay(data.regularPay());
+        breakdown.setOvertime125Pay(data.overtime125Pay());
+        breakdown.setOvertime150Pay(data.overtime150Pay());
+        breakdown.setTravelAllowance(data.travelAllowance());
+        breakdown.setGrossSalary(data.grossSalary());
+        breakdown.setEmployeePension(data.employeePension());
+        breakdown.setNationalInsurance(data.nationalInsurance());
+        breakdown.setTaxableIncome(data.taxableIncome());
+        breakdown.setIncomeTax(data.incomeTax());
+        breakdown.setTotalDeductions(data.totalDeductions());
+        breakdown.setCreditPoints(data.creditPoints());
+        breakdown.setEmployerPension(data.employerPension());
+        breakdown.setEmployerSeverance(data.employerSeverance());
+        breakdown.setEmployerNi(data.employerNI());
+        breakdown.setTotalEmployerCost(data.totalEmployerCost());
+        return breakdown;
+    }
+
+    /**
+     * Rebuilds the slip data the breakdown was stored from. Amounts missing from older records are zero.
+     */
+    public SalarySlipData toSlipData(String companyName, String companyId, String companyAddress,
+                                     int year, int month, String employeeName, String personalId,
+                                     LocalDate paymentDate, double netSalary) {
+        return new SalarySlipData(
+                companyName,
+                companyId,
+                companyAddress,
+                year,
+                month,
+                this.employeeName != null ? this.employeeName : employeeName,
+                personalId,
+                department,
+                paymentDate,
+                pensionFund,
+                providentFund,
+                insuranceCompany,
+                value(regularHours),
+                value(overtime125Hours),
+                value(overtime150Hours),
+                value(travelDays),
+                value(hourlyRate),
+                value(regularPay),
+                value(overtime125Pay),
+                value(overtime150Pay),
+                value(travelAllowance),
+                value(grossSalary),
+                value(employeePension),
+                value(nationalInsurance),
+                value(taxableIncome),
+                value(incomeTax),
+                value(totalDeductions),
+                netSalary,
+                value(creditPoints),
+                value(employerPension),
+                value(employerSeverance),
+                value(employerNi),
+                value(totalEmployerCost)
+        );
+    }
+
+    private static double value(Double amount) {
+        return amount != null ? amount : 0;
+    }
+}
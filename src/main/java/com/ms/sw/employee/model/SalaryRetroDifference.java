@@ -0,0 +1,46 @@
+package com.ms.sw.employee.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Net salary change of a {@link Salary} record found by a retroactive recalculation.
+ */
+@Entity
+@Table(
+        name = "salary_retro_difference",
+        indexes = @Index(name = "idx_salary_retro_difference_retro", columnList = "retro_id")
+)
+@Data
+public class SalaryRetroDifference {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "retro_id", nullable = false, length = 36)
+    private String retroId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "salary_id", nullable = false)
+    private Salary salary;
+
+    @Column(name = "previous_net", nullable = false)
+    private double previousNet;
+
+    @Column(name = "recalculated_net", nullable = false)
+    private double recalculatedNet;
+
+    @Column(name = "difference", nullable = false)
+    private double difference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ms.sw.employee.model;
+
+import com.ms.sw.user.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Net salary rollup of one department of a user for one month.
+ *
+ * <p>{@code sketch} holds a serialized {@code SalaryQuantileSketch} of the net salaries.</p>
+ */
+@Entity
+@Table(
+        name = "salary_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "rollup_year", "rollup_month", "department"})
+)
+@Data
+public class SalaryRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "rollup_year", nullable = false)
+    private int rollupYear;
+
+    @Column(name = "rollup_month", nullable = false)
+    private int rollupMonth;
+
+    @Column(name = "department", nullable = false)
+    private String department;
+
+    @Column(name = "salary_count", nullable = false)
+    private long salaryCount;
+
+    @Column(name = "total_agorot", nullable = false)
+    private long totalAgorot;
+
+    @Column(name = "min_salary", nullable = false)
+    private double minSalary;
+
+    @Column(name = "max_salary", nullable = false)
+    private double maxSalary;
+
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,55 @@
+package com.ms.sw.employee.model;
+
+import com.ms.sw.user.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background rendering job of a single salary slip PDF.
+ */
+@Entity
+@Table(name = "salary_slip_job")
+@Data
+public class SalarySlipJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "salary_id", nullable = false)
+    private Salary salary;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private SalarySlipJobStatus status;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    /**
+     * Whether the user is notified once the slip is rendered, {@code null} on jobs created before it was stored.
+     */
+    @Column(name = "notify_user")
+    private Boolean notifyUser;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = SalarySlipJobStatus.QUEUED;
+        }
+    }
+}
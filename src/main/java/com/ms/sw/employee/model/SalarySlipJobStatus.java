@@ -0,0 +1,9 @@
+package com.ms.sw.employee.model;
+
+public enum SalarySlipJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    SUPERSEDED
+}
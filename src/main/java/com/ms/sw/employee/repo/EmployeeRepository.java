@@ -3,12 +3,16 @@ package com.ms.sw.employee.repo;
 import com.ms.sw.employee.dto.EmployeeDetailsResponse;
 import com.ms.sw.employee.dto.EmployeeListResponse;
 import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.PayrollEmployeeDto;
 import com.ms.sw.employee.model.Employees;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -157,10 +161,32 @@ public interface EmployeeRepository extends JpaRepository<Employees, Long> {
             @Param("username") String username,
             @Param("personalId") String personalId);
 
+    @Query("""
+        select new com.ms.sw.employee.dto.PayrollEmployeeDto(
+                e.id,
+                e.personalId,
+                concat(e.firstName,' ',e.lastName),
+                e.department.departmentName
+                )
+        from Employees e
+        where e.user.username = :username
+        AND e.personalId in :personalIds
+        """)
+    List<PayrollEmployeeDto> getEmployeesPayrollByPersonalIds(
+            @Param("username") String username,
+            @Param("personalIds") Collection<String> personalIds);
 
     @Query("SELECT e FROM Employees e WHERE e.personalId = :personalId AND e.user.username = :username")
     Optional<Employees> findEntityByPersonalIdAndUsername(
             @Param("personalId") String personalId,
             @Param("username") String username
     );
-}
\ No newline at end of file
+
+    /**
+     * Loads the employee with a row lock held until the transaction ends, serializing the salary
+     * records written for the employee.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Employees e where e.id = :id")
+    Optional<Employees> lockById(@Param("id") Long id);
+}
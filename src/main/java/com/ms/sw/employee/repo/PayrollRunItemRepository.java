@@ -0,0 +1,84 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.dto.PayrollRunItemDto;
+import com.ms.sw.employee.model.PayrollRunItem;
+import com.ms.sw.employee.model.PayrollRunItemStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollRunItemRepository extends JpaRepository<PayrollRunItem, Long> {
+
+    @Query("""
+        select new com.ms.sw.employee.dto.PayrollRunItemDto(
+            i.id,
+            i.personalId,
+            i.employeeName,
+            i.department,
+            i.status
+        )
+        from PayrollRunItem i
+        where i.run.id = :runId
+        and i.status <> com.ms.sw.employee.model.PayrollRunItemStatus.DONE
+        and i.attempts < :maxAttempts
+        order by i.id
+    """)
+    List<PayrollRunItemDto> findItemsToProcess(@Param("runId") String runId, @Param("maxAttempts") int maxAttempts);
+
+    @Query("select count(i) from PayrollRunItem i where i.run.id = :runId")
+    long countItems(@Param("runId") String runId);
+
+    @Query("select count(i) from PayrollRunItem i where i.run.id = :runId and i.status = :status")
+    long countItemsInStatus(@Param("runId") String runId, @Param("status") PayrollRunItemStatus status);
+
+    @Query("""
+        select i.personalId
+        from PayrollRunItem i
+        where i.run.id = :runId
+        and i.status = com.ms.sw.employee.model.PayrollRunItemStatus.FAILED
+        order by i.id
+    """)
+    List<String> findFailedPersonalIds(@Param("runId") String runId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update PayrollRunItem i
+        set i.status = com.ms.sw.employee.model.PayrollRunItemStatus.DONE,
+            i.errorMessage = null,
+            i.updatedAt = :updatedAt
+        where i.id = :id
+    """)
+    void markDone(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update PayrollRunItem i
+        set i.status = com.ms.sw.employee.model.PayrollRunItemStatus.FAILED,
+            i.attempts = i.attempts + 1,
+            i.errorMessage = :errorMessage,
+            i.updatedAt = :updatedAt
+        where i.id = :id
+    """)
+    void markFailed(@Param("id") Long id,
+                    @Param("errorMessage") String errorMessage,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update PayrollRunItem i
+        set i.attempts = 0
+        where i.run.id = :runId
+        and i.status = com.ms.sw.employee.model.PayrollRunItemStatus.FAILED
+    """)
+    int resetFailedAttempts(@Param("runId") String runId);
+}
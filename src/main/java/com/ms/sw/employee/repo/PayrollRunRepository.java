@@ -0,0 +1,48 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.model.PayrollRun;
+import com.ms.sw.employee.model.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, String> {
+
+    @Query("""
+        select r
+        from PayrollRun r
+        join fetch r.user
+        where r.status = :status
+        order by r.createdAt
+    """)
+    List<PayrollRun> findRunsInStatus(@Param("status") PayrollRunStatus status);
+
+    @Query("""
+        select r
+        from PayrollRun r
+        join fetch r.user
+        where r.id = :id
+        and r.user.username = :username
+    """)
+    Optional<PayrollRun> findRunOfUser(@Param("id") String id, @Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update PayrollRun r
+        set r.status = :status,
+            r.completedAt = :completedAt
+        where r.id = :id
+    """)
+    void updateStatus(@Param("id") String id,
+                      @Param("status") PayrollRunStatus status,
+                      @Param("completedAt") LocalDateTime completedAt);
+}
@@ -0,0 +1,81 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.dto.PayrollYearTotalsDto;
+import com.ms.sw.employee.model.PayrollYearTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollYearTotalsRepository extends JpaRepository<PayrollYearTotals, Long> {
+
+    @Query("""
+        select new com.ms.sw.employee.dto.PayrollYearTotalsDto(
+            e.personalId,
+            concat(e.firstName, ' ', e.lastName),
+            d.departmentName,
+            t.payrollYear,
+            t.months,
+            t.grossSalary,
+            t.incomeTax,
+            t.nationalInsurance,
+            t.employeePension,
+            t.netSalary,
+            t.employerPension,
+            t.employerSeverance,
+            t.employerNi,
+            t.totalEmployerCost
+        )
+        from PayrollYearTotals t
+        join t.employee e
+        left join e.department d
+        where e.user.username = :username
+        and t.payrollYear = :year
+        order by e.personalId
+    """)
+    List<PayrollYearTotalsDto> findYearTotals(@Param("username") String username, @Param("year") int year);
+
+    /**
+     * Adds the given amounts to the totals of the employee and year, creating the row on first use.
+     * The increment is applied atomically by PostgreSQL, so concurrent salaries of the same employee add up.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO payroll_year_totals AS t (
+        employee_id, payroll_year, months, gross_salary, income_tax, national_insurance, employee_pension,
+        net_salary, employer_pension, employer_severance, employer_ni, total_employer_cost, updated_at)
+    VALUES (
+        :employeeId, :year, :months, :grossSalary, :incomeTax, :nationalInsurance, :employeePension,
+        :netSalary, :employerPension, :employerSeverance, :employerNi, :totalEmployerCost, :updatedAt)
+    ON CONFLICT (employee_id, payroll_year) DO UPDATE SET
+        months = t.months + EXCLUDED.months,
+        gross_salary = t.gross_salary + EXCLUDED.gross_salary,
+        income_tax = t.income_tax + EXCLUDED.income_tax,
+        national_insurance = t.national_insurance + EXCLUDED.national_insurance,
+        employee_pension = t.employee_pension + EXCLUDED.employee_pension,
+        net_salary = t.net_salary + EXCLUDED.net_salary,
+        employer_pension = t.employer_pension + EXCLUDED.employer_pension,
+        employer_severance = t.employer_severance + EXCLUDED.employer_severance,
+        employer_ni = t.employer_ni + EXCLUDED.employer_ni,
+        total_employer_cost = t.total_employer_cost + EXCLUDED.total_employer_cost,
+        updated_at = EXCLUDED.updated_at
+    """, nativeQuery = true)
+    void addToYearTotals(@Param("employeeId") long employeeId,
+                         @Param("year") int year,
+                         @Param("months") int months,
+                         @Param("grossSalary") double grossSalary,
+                         @Param("incomeTax") double incomeTax,
+                         @Param("nationalInsurance") double nationalInsurance,
+                         @Param("employeePension") double employeePension,
+                         @Param("netSalary") double netSalary,
+                         @Param("employerPension") double employerPension,
+                         @Param("employerSeverance") double employerSeverance,
+                         @Param("employerNi") double employerNi,
+                         @Param("totalEmployerCost") double totalEmployerCost,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+}
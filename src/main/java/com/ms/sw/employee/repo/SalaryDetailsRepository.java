@@ -1,5 +1,6 @@
 package com.ms.sw.employee.repo;
 
+import com.ms.sw.employee.dto.EmployeeSalaryDetailsDto;
 import com.ms.sw.employee.dto.SalaryDetailsDto;
 import com.ms.sw.employee.model.SalaryDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SalaryDetailsRepository extends JpaRepository<SalaryDetails, Long> {
 
@@ -28,6 +32,26 @@ public interface SalaryDetailsRepository extends JpaRepository<SalaryDetails, Lo
         """)
     SalaryDetailsDto findSalaryDetailsOfEmployee(@Param("username") String username,@Param("personalId") String personalId);
 
+    @Query("""
+        select new com.ms.sw.employee.dto.EmployeeSalaryDetailsDto(
+                s.employee.personalId,
+                s.pensionFund,
+                s.providentFund,
+                s.insuranceCompany,
+                s.totalSeekDays,
+                s.totalVacationDays,
+                s.salaryPerHour,
+                s.seniority,
+                s.creditPoints
+                )
+        from SalaryDetails s
+        where s.employee.user.username = :username
+        AND s.employee.personalId in :personalIds
+        """)
+    List<EmployeeSalaryDetailsDto> findSalaryDetailsOfEmployees(
+            @Param("username") String username,
+            @Param("personalIds") Collection<String> personalIds);
+
 
     @Modifying
     @Query("""
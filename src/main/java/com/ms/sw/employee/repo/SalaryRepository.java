@@ -1,13 +1,23 @@
 package com.ms.sw.employee.repo;
 
+import com.ms.sw.employee.dto.SalaryRangeDto;
+import com.ms.sw.employee.dto.SalaryRecordDto;
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import com.ms.sw.employee.dto.SalarySlipSearchRowDto;
 import com.ms.sw.employee.dto.SalaryStatsDto;
+import com.ms.sw.employee.dto.SalaryTrendPointDto;
 import com.ms.sw.employee.model.Salary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SalaryRepository extends JpaRepository<Salary, Long> {
@@ -25,7 +35,201 @@ public interface SalaryRepository extends JpaRepository<Salary, Long> {
     """)
     List<SalaryStatsDto> getSalaryStats(@Param("username") String username, int year, int month);
 
-    @Query("SELECT s FROM Salary s WHERE s.employee.personalId = :personalId AND s.salaryYear = :year AND (:month = 0 OR s.salaryMonth = :month)")
-    List<Salary> searchSalariesForView(@Param("personalId") String personalId, @Param("year") int year, @Param("month") int month);
+    /**
+     * Whether the user has salary records of the month saved without a breakdown, which the salary rollups do not count.
+     */
+    @Query("""
+        select count(s) > 0
+        from Salary s
+        where s.employee.user.username = :username
+        and s.salaryYear = :year
+        and s.salaryMonth = :month
+        and s.breakdown.grossSalary is null
+    """)
+    boolean hasSalariesWithoutBreakdown(@Param("username") String username,
+                                        @Param("year") int year,
+                                        @Param("month") int month);
+
+    @Query("""
+        select new com.ms.sw.employee.dto.SalaryTrendPointDto(
+            s.salaryYear,
+            s.salaryMonth,
+            sum(s.salaryAmount),
+            avg(s.salaryAmount),
+            max(s.salaryAmount)
+        )
+        from Salary s
+        where s.employee.user.username = :username
+        and s.salaryYear * 100 + s.salaryMonth between :fromPeriod and :toPeriod
+        group by s.salaryYear, s.salaryMonth
+    """)
+    List<SalaryTrendPointDto> getSalaryTrend(@Param("username") String username,
+                                             @Param("fromPeriod") int fromPeriod,
+                                             @Param("toPeriod") int toPeriod);
+
+    /**
+     * One page of the salary slips of the user's employees from {@code fromPeriod} to {@code toPeriod} inclusive,
+     * where a period is {@code year * 100 + month}, newest month first. {@code personalId} and {@code department}
+     * filter only when not {@code null}.
+     *
+     * <p>Pages are read by keyset: the next page starts after the {@code (afterYear, afterMonth, afterId)} of the
+     * last row, or at the newest month when {@code afterId} is {@code null}. The records of each of the user's
+     * employees are read from {@code idx_salary_employee_period_id} starting at the cursor, so a page only reads
+     * and sorts the user's own records after it, never those of other users or of earlier pages.</p>
+     */
+    @Query("""
+        select new com.ms.sw.employee.dto.SalarySlipSearchRowDto(
+            s.id,
+            e.personalId,
+            concat(e.firstName, ' ', e.lastName),
+            d.departmentName,
+            s.salaryYear,
+            s.salaryMonth,
+            s.salaryAmount,
+            case when s.pathOfTlush is not null then true else false end
+        )
+        from Salary s
+        join s.employee e
+        left join e.department d
+        where e.user.username = :username
+        and (:personalId is null or e.personalId = :personalId)
+        and (:department is null or d.departmentName = :department)
+        and s.salaryYear between :fromYear and :toYear
+        and s.salaryYear * 100 + s.salaryMonth between :fromPeriod and :toPeriod
+        and (:afterId is null
+            or (s.salaryYear, s.salaryMonth, s.id) < (:afterYear, :afterMonth, :afterId))
+        order by s.salaryYear desc, s.salaryMonth desc, s.id desc
+    """)
+    List<SalarySlipSearchRowDto> searchSalarySlips(@Param("username") String username,
+                                                   @Param("personalId") String personalId,
+                                                   @Param("department") String department,
+                                                   @Param("fromYear") int fromYear,
+                                                   @Param("toYear") int toYear,
+                                                   @Param("fromPeriod") int fromPeriod,
+                                                   @Param("toPeriod") int toPeriod,
+                                                   @Param("afterYear") int afterYear,
+                                                   @Param("afterMonth") int afterMonth,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    @Query("""
+        select new com.ms.sw.employee.dto.SalarySlipFileDto(
+            s.id,
+            s.pathOfTlush,
+            s.slipGeneratedAt,
+            s.createdAt
+        )
+        from Salary s
+        where s.id = :id
+        and s.employee.user.username = :username
+    """)
+    Optional<SalarySlipFileDto> findSlipFile(@Param("id") Long id, @Param("username") String username);
+
+    @Query("""
+        select distinct s.pathOfTlush
+        from Salary s
+        where s.employee.user.username = :username
+        and s.salaryYear = :year
+        and s.salaryMonth = :month
+        and s.pathOfTlush is not null
+        order by s.pathOfTlush
+    """)
+    List<String> findSlipPathsOfMonth(@Param("username") String username, @Param("year") int year, @Param("month") int month);
+
+    /**
+     * Slips of the month that were not rendered yet but can be, from their stored breakdown.
+     */
+    @Query("""
+        select new com.ms.sw.employee.dto.SalarySlipFileDto(
+            s.id,
+            s.pathOfTlush,
+            s.slipGeneratedAt,
+            s.createdAt
+        )
+        from Salary s
+        where s.employee.user.username = :username
+        and s.salaryYear = :year
+        and s.salaryMonth = :month
+        and s.pathOfTlush is null
+        and s.breakdown.grossSalary is not null
+        order by s.id
+    """)
+    List<SalarySlipFileDto> findDeferredSlipsOfMonth(@Param("username") String username,
+                                                     @Param("year") int year,
+                                                     @Param("month") int month);
+
+    /**
+     * Salary record owned by the user with its employee and owner, to render its slip from the stored breakdown.
+     */
+    @Query("""
+        select s
+        from Salary s
+        join fetch s.employee e
+        join fetch e.user u
+        where s.id = :id
+        and u.username = :username
+    """)
+    Optional<Salary> findSlipSource(@Param("id") Long id, @Param("username") String username);
+
+    @Query("""
+        select s
+        from Salary s
+        where s.employee.id = :employeeId
+        and s.salaryYear = :year
+        and s.salaryMonth = :month
+        order by s.id desc
+    """)
+    List<Salary> findPayrollRecords(@Param("employeeId") Long employeeId, @Param("year") int year, @Param("month") int month);
+
+    /**
+     * Salary records of the user's employees from {@code fromPeriod} to {@code toPeriod} inclusive,
+     * where a period is {@code year * 100 + month}. Records of every employee are returned when
+     * {@code personalId} is {@code null}.
+     */
+    @Query("""
+        select new com.ms.sw.employee.dto.SalaryRecordDto(
+            s.id,
+            e.id,
+            e.personalId,
+            s.salaryYear,
+            s.salaryMonth,
+            s.salaryAmount
+        )
+        from Salary s
+        join s.employee e
+        where e.user.username = :username
+        and (:personalId is null or e.personalId = :personalId)
+        and s.salaryYear * 100 + s.salaryMonth between :fromPeriod and :toPeriod
+        order by s.id desc
+    """)
+    List<SalaryRecordDto> findSalaryRecordsInPeriod(@Param("username") String username,
+                                                    @Param("personalId") String personalId,
+                                                    @Param("fromPeriod") int fromPeriod,
+                                                    @Param("toPeriod") int toPeriod);
+
+    /**
+     * Lowest and highest net salary of a department of the user in a month, of salaries with a stored breakdown.
+     */
+    @Query("""
+        select new com.ms.sw.employee.dto.SalaryRangeDto(
+            min(s.salaryAmount),
+            max(s.salaryAmount)
+        )
+        from Salary s
+        where s.employee.user.id = :userId
+        and s.salaryYear = :year
+        and s.salaryMonth = :month
+        and coalesce(s.breakdown.department, '') = :department
+        and s.breakdown.grossSalary is not null
+    """)
+    SalaryRangeDto findSalaryRange(@Param("userId") long userId,
+                                   @Param("year") int year,
+                                   @Param("month") int month,
+                                   @Param("department") String department);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Salary s SET s.pathOfTlush = :path, s.slipGeneratedAt = :generatedAt WHERE s.id = :id")
+    void updateSlipFile(@Param("id") Long id, @Param("path") String path, @Param("generatedAt") Instant generatedAt);
 
 }
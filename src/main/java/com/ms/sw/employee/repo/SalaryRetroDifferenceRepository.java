@@ -0,0 +1,36 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.dto.SalaryRetroDifferenceDto;
+import com.ms.sw.employee.model.SalaryRetroDifference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SalaryRetroDifferenceRepository extends JpaRepository<SalaryRetroDifference, Long> {
+
+    @Query("""
+        select new com.ms.sw.employee.dto.SalaryRetroDifferenceDto(
+            s.id,
+            e.personalId,
+            concat(e.firstName, ' ', e.lastName),
+            s.salaryYear,
+            s.salaryMonth,
+            d.previousNet,
+            d.recalculatedNet,
+            d.difference,
+            d.createdAt
+        )
+        from SalaryRetroDifference d
+        join d.salary s
+        join s.employee e
+        where d.retroId = :retroId
+        and e.user.username = :username
+        order by s.salaryYear, s.salaryMonth, e.personalId
+    """)
+    List<SalaryRetroDifferenceDto> findDifferencesOfRetro(@Param("retroId") String retroId,
+                                                          @Param("username") String username);
+}
@@ -0,0 +1,64 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.model.SalaryRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SalaryRollupRepository extends JpaRepository<SalaryRollup, Long> {
+
+    /**
+     * Creates the empty rollup of the key unless it exists, so it can then be locked with {@link #findForUpdate}.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO salary_rollup (user_id, rollup_year, rollup_month, department,
+                               salary_count, total_agorot, min_salary, max_salary, sketch)
+    VALUES (:userId, :year, :month, :department, 0, 0, 0, 0, :emptySketch)
+    ON CONFLICT (user_id, rollup_year, rollup_month, department) DO NOTHING
+    """, nativeQuery = true)
+    void insertIfAbsent(@Param("userId") long userId,
+                        @Param("year") int year,
+                        @Param("month") int month,
+                        @Param("department") String department,
+                        @Param("emptySketch") byte[] emptySketch);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select r
+        from SalaryRollup r
+        where r.user.id = :userId
+        and r.rollupYear = :year
+        and r.rollupMonth = :month
+        and r.department = :department
+    """)
+    Optional<SalaryRollup> findForUpdate(@Param("userId") long userId,
+                                         @Param("year") int year,
+                                         @Param("month") int month,
+                                         @Param("department") String department);
+
+    /**
+     * Rollups of the user from {@code fromPeriod} to {@code toPeriod} inclusive, where a period is
+     * {@code year * 100 + month}, of one department or of all when {@code department} is {@code null}.
+     */
+    @Query("""
+        select r
+        from SalaryRollup r
+        where r.user.username = :username
+        and r.rollupYear * 100 + r.rollupMonth between :fromPeriod and :toPeriod
+        and (:department is null or r.department = :department)
+        and r.salaryCount > 0
+    """)
+    List<SalaryRollup> findRollups(@Param("username") String username,
+                                   @Param("fromPeriod") int fromPeriod,
+                                   @Param("toPeriod") int toPeriod,
+                                   @Param("department") String department);
+}
@@ -0,0 +1,135 @@
+package com.ms.sw.employee.repo;
+
+import com.ms.sw.employee.dto.SalarySlipJobDto;
+import com.ms.sw.employee.model.SalarySlipJob;
+import com.ms.sw.employee.model.SalarySlipJobStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SalarySlipJobRepository extends JpaRepository<SalarySlipJob, Long> {
+
+    @Query("""
+        select new com.ms.sw.employee.dto.SalarySlipJobDto(
+            j.id,
+            j.salary.id,
+            j.status,
+            j.errorMessage,
+            j.createdAt,
+            j.completedAt
+        )
+        from SalarySlipJob j
+        where j.id = :id
+        and j.user.username = :username
+    """)
+    Optional<SalarySlipJobDto> findJobStatus(@Param("id") Long id, @Param("username") String username);
+
+    @Query("""
+        select new com.ms.sw.employee.dto.SalarySlipJobDto(
+            j.id,
+            j.salary.id,
+            j.status,
+            j.errorMessage,
+            j.createdAt,
+            j.completedAt
+        )
+        from SalarySlipJob j
+        where j.salary.id = :salaryId
+        order by j.id desc
+    """)
+    List<SalarySlipJobDto> findJobsOfSalary(@Param("salaryId") Long salaryId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update SalarySlipJob j
+        set j.status = :status,
+            j.errorMessage = :errorMessage,
+            j.completedAt = :completedAt
+        where j.id = :id
+    """)
+    void updateStatus(@Param("id") Long id,
+                      @Param("status") SalarySlipJobStatus status,
+                      @Param("errorMessage") String errorMessage,
+                      @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Moves a queued job to RUNNING, returns 0 if another worker already took it or the salary has a newer job.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update SalarySlipJob j
+        set j.status = com.ms.sw.employee.model.SalarySlipJobStatus.RUNNING
+        where j.id = :id
+        and j.status = com.ms.sw.employee.model.SalarySlipJobStatus.QUEUED
+        and not exists (
+            select n.id
+            from SalarySlipJob n
+            where n.salary = j.salary
+            and n.id > j.id
+        )
+    """)
+    int claim(@Param("id") Long id);
+
+    /**
+     * Moves a queued job to SUPERSEDED if the salary has a newer job, which renders the slip instead.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update SalarySlipJob j
+        set j.status = com.ms.sw.employee.model.SalarySlipJobStatus.SUPERSEDED,
+            j.completedAt = :completedAt
+        where j.id = :id
+        and j.status = com.ms.sw.employee.model.SalarySlipJobStatus.QUEUED
+        and exists (
+            select n.id
+            from SalarySlipJob n
+            where n.salary = j.salary
+            and n.id > j.id
+        )
+    """)
+    int supersede(@Param("id") Long id, @Param("completedAt") LocalDateTime completedAt);
+
+    @Query("""
+        select j.id
+        from SalarySlipJob j
+        where j.status = com.ms.sw.employee.model.SalarySlipJobStatus.QUEUED
+        order by j.id
+    """)
+    List<Long> findQueuedJobIds(Limit limit);
+
+    /**
+     * Job with its salary, employee and owner, to render the slip from the stored breakdown.
+     */
+    @Query("""
+        select j
+        from SalarySlipJob j
+        join fetch j.user
+        join fetch j.salary s
+        join fetch s.employee e
+        join fetch e.user
+        where j.id = :id
+    """)
+    Optional<SalarySlipJob> findWithSalary(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update SalarySlipJob j
+        set j.status = com.ms.sw.employee.model.SalarySlipJobStatus.QUEUED
+        where j.status = com.ms.sw.employee.model.SalarySlipJobStatus.RUNNING
+    """)
+    int requeueRunningJobs();
+
+}
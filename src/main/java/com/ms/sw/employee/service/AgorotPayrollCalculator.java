@@ -0,0 +1,185 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendancePayrollDto;
+import com.ms.sw.attendance.service.AttendanceMonthSummarizer;
+import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.user.model.User;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Fixed-point counterpart of {@link PayrollCalculator}, with the same {@code calculate} overloads.
+ *
+ * <p>Hours are kept in hundredths of an hour, money in agorot and rates in units of 0.01%
+ * ({@value #RATE_SCALE} = 100%). Intermediate products are kept unrounded in scaled {@code long}
+ * values and every field is rounded half-up to agorot exactly once, so the result matches the
+ * {@code double} calculation to the agora. Attendance rows are summed by {@link AttendanceMonthSummarizer}
+ * as in {@link PayrollCalculator}, and the slip is calculated from the month summary without
+ * allocating anything besides the returned slip.</p>
+ *
+ * <p>Scales used below: {@code E4} is agorot × 10<sup>4</sup> (amount × rate),
+ * {@code E6} is agorot × 10<sup>6</sup> (hours × hourly rate × rate) and
+ * {@code E8} is agorot × 10<sup>8</sup> (amount × rate × rate).</p>
+ */
+@Component
+public class AgorotPayrollCalculator {
+
+    static final long RATE_SCALE = 10_000;
+    static final long HOUR_SCALE = 100;
+    static final long AGOROT_SCALE = 100;
+
+    private static final long E4 = 10_000L;
+    private static final long E6 = 1_000_000L;
+    private static final long E8 = 100_000_000L;
+
+    private final PayrollTaxTables taxTables;
+
+    public AgorotPayrollCalculator(PayrollTaxTables taxTables) {
+        this.taxTables = taxTables;
+    }
+
+    /**
+     * Calculates gross salary, deductions, net salary and employer costs.
+     *
+     * @param user          owner of the employee, used for the company details
+     * @param employee      employee payroll details
+     * @param attendance    attendance summary of the month
+     * @param salaryDetails salary details of the employee
+     * @return the full salary slip breakdown
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    AttendanceMonthSummaryDto attendance,
+                                    SalaryDetailsDto salaryDetails) {
+        return calculate(user, employee, attendance, salaryDetails, PayrollParameters.DEFAULTS);
+    }
+
+    /**
+     * Calculates the salary slip from the attendance rows of the month.
+     *
+     * @param attendance attendance rows of the month, must not be empty
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    List<AttendancePayrollDto> attendance,
+                                    SalaryDetailsDto salaryDetails) {
+        return calculate(user, employee, attendance, salaryDetails, PayrollParameters.DEFAULTS);
+    }
+
+    /**
+     * Calculates the salary slip from the attendance rows of the month with the given payroll rates
+     * and limits instead of {@link PayrollConstants}.
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    List<AttendancePayrollDto> attendance,
+                                    SalaryDetailsDto salaryDetails,
+                                    PayrollParameters parameters) {
+
+        AttendanceMonthSummaryDto summary = AttendanceMonthSummarizer.summarize(
+                employee.personalId(), YearMonth.from(attendance.getFirst().date()), attendance,
+                parameters.regularDailyHoursLimit(), parameters.overtime125Limit());
+        return calculate(user, employee, summary, salaryDetails, parameters);
+    }
+
+    /**
+     * Calculates the salary slip with the given payroll rates instead of {@link PayrollConstants}.
+     * The attendance summary must have been summed with the daily hour limits of {@code parameters}.
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    AttendanceMonthSummaryDto attendance,
+                                    SalaryDetailsDto salaryDetails,
+                                    PayrollParameters parameters) {
+
+        PayrollTaxYear taxYear = taxTables.forPeriod(attendance.year(), attendance.month());
+
+        // Hours
+        long regularHours = toHours(attendance.regularHours());
+        long hours125 = toHours(attendance.hours125());
+        long hours150 = toHours(attendance.hours150());
+        long travelDays = attendance.travelDays();
+
+        // Gross
+        long hourlyRate = toAgorot(salaryDetails.salaryPerHour());
+        long regularPayE6 = regularHours * hourlyRate * (E6 / HOUR_SCALE);
+        long overtime125PayE6 = hours125 * hourlyRate * toRate(parameters.rate125());
+        long overtime150PayE6 = hours150 * hourlyRate * toRate(parameters.rate150());
+        long travelAllowanceE6 = travelDays * toAgorot(parameters.dailyTravelRate()) * E6;
+        long gross = roundDiv(regularPayE6 + overtime125PayE6 + overtime150PayE6 + travelAllowanceE6, E6);
+
+        // Pension & severance
+        long employeePensionE4 = gross * toRate(parameters.pensionEmployeeRate());
+        long employerPensionE4 = gross * toRate(parameters.pensionEmployerRate());
+        long employerSeveranceE4 = gross * toRate(parameters.severanceEmployerRate());
+
+        // National insurance
+        long employeeNiE4 = taxYear.employeeNi().applyAgorot(gross);
+        long employerNiE4 = taxYear.employerNi().applyAgorot(gross);
+
+        // Income tax
+        long taxableE4 = gross * E4 - employeePensionE4;
+        long grossTaxE8 = taxYear.incomeTax().applyE4(taxableE4);
+        long creditE8 = toHundredths(salaryDetails.creditPoints()) * toAgorot(taxYear.creditPointValue()) * E6;
+        long incomeTaxE8 = Math.max(0, grossTaxE8 - creditE8);
+
+        long totalDeductionsE8 = (employeePensionE4 + employeeNiE4) * E4 + incomeTaxE8;
+        long netSalaryE8 = gross * E8 - totalDeductionsE8;
+        long employerCostE4 = gross * E4 + employerPensionE4 + employerSeveranceE4 + employerNiE4;
+
+        return new SalarySlipData(
+                user.getCompanyName(), user.getCompanyId(), user.getCompanyAddress(),
+                attendance.year(), attendance.month(),
+                employee.employeeName(), employee.personalId(), employee.department(),
+                LocalDate.now(),
+                salaryDetails.pensionFund(), salaryDetails.providentFund(), salaryDetails.insuranceCompany(),
+                hoursValue(regularHours), hoursValue(hours125), hoursValue(hours150), travelDays,
+                salaryDetails.salaryPerHour(),
+                shekels(roundDiv(regularPayE6, E6)), shekels(roundDiv(overtime125PayE6, E6)),
+                shekels(roundDiv(overtime150PayE6, E6)), shekels(roundDiv(travelAllowanceE6, E6)),
+                shekels(gross),
+                shekels(roundDiv(employeePensionE4, E4)), shekels(roundDiv(employeeNiE4, E4)),
+                shekels(roundDiv(taxableE4, E4)), shekels(roundDiv(incomeTaxE8, E8)),
+                shekels(roundDiv(totalDeductionsE8, E8)), shekels(roundDiv(netSalaryE8, E8)),
+                salaryDetails.creditPoints(),
+                shekels(roundDiv(employerPensionE4, E4)),
+                shekels(roundDiv(employerSeveranceE4, E4)),
+                shekels(roundDiv(employerNiE4, E4)),
+                shekels(roundDiv(employerCostE4, E4))
+        );
+    }
+
+    /**
+     * UTILITY
+     */
+    static long roundDiv(long value, long divisor) {
+        return value >= 0
+                ? (value + divisor / 2) / divisor
+                : -((-value + divisor / 2) / divisor);
+    }
+
+    static long toAgorot(double amount) {
+        return Math.round(amount * AGOROT_SCALE);
+    }
+
+    static long toRate(double rate) {
+        return Math.round(rate * RATE_SCALE);
+    }
+
+    static long toHours(double hours) {
+        return Math.round(hours * HOUR_SCALE);
+    }
+
+    static long toHundredths(double value) {
+        return Math.round(value * 100);
+    }
+
+    private static double shekels(long agorot) {
+        return agorot / (double) AGOROT_SCALE;
+    }
+
+    private static double hoursValue(long hundredths) {
+        return hundredths / (double) HOUR_SCALE;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.AnnualReportData;
+import com.ms.sw.employee.dto.PayrollYearTotalsDto;
+import com.ms.sw.employee.repo.PayrollYearTotalsRepository;
+import com.ms.sw.user.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service responsible for year-to-date payroll totals and the annual payroll report of every employee.
+ *
+ * <p>Totals are read from {@code payroll_year_totals}, which {@link SalaryRecordService} keeps up to
+ * date as salaries are saved, so no salary rows are summed here. The annual report renders one PDF per
+ * employee in virtual threads, at most {@code payroll.report.render-ahead} ahead of the ZIP writer, and
+ * writes them in personal ID order as soon as each is ready. Rendering itself is bounded by
+ * {@link PdfRendererPool}.</p>
+ */
+@Service
+@Slf4j
+public class AnnualReportService {
+
+    private final PayrollYearTotalsRepository payrollYearTotalsRepository;
+    private final PdfGeneratorService pdfGenerator;
+    private final int renderAhead;
+
+    public AnnualReportService(PayrollYearTotalsRepository payrollYearTotalsRepository,
+                               PdfGeneratorService pdfGenerator,
+                               @Value("${payroll.report.render-ahead:16}") int renderAhead) {
+        this.payrollYearTotalsRepository = payrollYearTotalsRepository;
+        this.pdfGenerator = pdfGenerator;
+        this.renderAhead = Math.max(1, renderAhead);
+    }
+
+    /**
+     * Returns the year-to-date totals of every employee of the user with a salary in the year.
+     */
+    public List<PayrollYearTotalsDto> getYearTotals(String username, int year) {
+        return payrollYearTotalsRepository.findYearTotals(username, year);
+    }
+
+    /**
+     * Writes the annual report of every employee to {@code out} as a ZIP archive.
+     *
+     * @return number of reports written
+     */
+    public int writeAnnualReports(User user, List<PayrollYearTotalsDto> totals, OutputStream out) throws IOException {
+
+        LocalDate generationDate = LocalDate.now();
+        int written = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(out);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // PDFs are already compressed, deflating them again only costs CPU
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            Deque<Rendering> pending = new ArrayDeque<>();
+            for (PayrollYearTotalsDto employee : totals) {
+                AnnualReportData data = new AnnualReportData(
+                        user.getCompanyName(), user.getCompanyId(), user.getCompanyAddress(), employee, generationDate);
+                pending.add(new Rendering(
+                        String.format("annual-report_%s_%d.pdf", employee.personalId(), employee.year()),
+                        executor.submit(() -> pdfGenerator.generateAnnualReportPdf(data))));
+
+                if (pending.size() >= renderAhead) {
+                    writeEntry(zip, pending.poll());
+                    written++;
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.poll());
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private void writeEntry(ZipOutputStream zip, Rendering rendering) throws IOException {
+        byte[] pdf;
+        try {
+            pdf = rendering.pdf().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering annual reports", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render " + rendering.fileName(), e.getCause());
+        }
+
+        zip.putNextEntry(new ZipEntry(rendering.fileName()));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    private record Rendering(String fileName, Future<byte[]> pdf) {}
+}
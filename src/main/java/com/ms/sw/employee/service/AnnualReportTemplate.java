@@ -0,0 +1,122 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.AnnualReportData;
+import org.springframework.core.io.ClassPathResource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.ms.sw.employee.service.SalarySlipTemplate.appendFixed2;
+import static com.ms.sw.employee.service.SalarySlipTemplate.appendHebrew;
+import static java.util.Map.entry;
+
+/**
+ * Annual payroll report HTML template, compiled and rendered the same way as {@link SalarySlipTemplate}.
+ */
+final class AnnualReportTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @FunctionalInterface
+    private interface Slot {
+        void append(StringBuilder out, AnnualReportData data);
+    }
+
+    private static final Map<String, Slot> SLOTS = Map.ofEntries(
+            entry("companyName", (out, d) -> appendHebrew(out, d.companyName())),
+            entry("taxId", (out, d) -> out.append(d.companyId())),
+            entry("companyAddress", (out, d) -> appendHebrew(out, d.companyAddress())),
+            entry("year", (out, d) -> out.append(d.totals().year())),
+
+            entry("employeeName", (out, d) -> appendHebrew(out, d.totals().employeeName())),
+            entry("personalId", (out, d) -> out.append(d.totals().personalId())),
+            entry("department", (out, d) -> appendHebrew(out, d.totals().department())),
+            entry("months", (out, d) -> out.append(d.totals().months())),
+
+            entry("grossSalary", (out, d) -> appendFixed2(out, d.totals().grossSalary())),
+            entry("incomeTax", (out, d) -> appendFixed2(out, d.totals().incomeTax())),
+            entry("nationalInsurance", (out, d) -> appendFixed2(out, d.totals().nationalInsurance())),
+            entry("employeePension", (out, d) -> appendFixed2(out, d.totals().employeePension())),
+            entry("netSalary", (out, d) -> appendFixed2(out, d.totals().netSalary())),
+
+            entry("employerPension", (out, d) -> appendFixed2(out, d.totals().employerPension())),
+            entry("employerSeverance", (out, d) -> appendFixed2(out, d.totals().employerSeverance())),
+            entry("employerNI", (out, d) -> appendFixed2(out, d.totals().employerNi())),
+            entry("totalEmployerCost", (out, d) -> appendFixed2(out, d.totals().totalEmployerCost())),
+
+            entry("generationDate", (out, d) -> DATE_FORMATTER.formatTo(d.generationDate(), out))
+    );
+
+    private final String[] segments;
+    private final Slot[] slots;
+    private final int length;
+
+    private AnnualReportTemplate(String[] segments, Slot[] slots, int length) {
+        this.segments = segments;
+        this.slots = slots;
+        this.length = length;
+    }
+
+    /**
+     * Reads and compiles a template from the classpath.
+     */
+    static AnnualReportTemplate load(String classpathLocation) {
+        try (var in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read annual report template " + classpathLocation, e);
+        }
+    }
+
+    /**
+     * Splits the template into literal segments around its {@code {{placeholder}}} slots.
+     *
+     * @throws IllegalStateException on an unknown or unterminated placeholder
+     */
+    static AnnualReportTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+
+        int position = 0;
+        int open;
+        while ((open = template.indexOf(OPEN, position)) >= 0) {
+            int close = template.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalStateException("Unterminated placeholder at index " + open);
+            }
+            String name = template.substring(open + OPEN.length(), close).trim();
+            Slot slot = SLOTS.get(name);
+            if (slot == null) {
+                throw new IllegalStateException("Unknown annual report placeholder: " + name);
+            }
+            segments.add(template.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        segments.add(template.substring(position));
+
+        return new AnnualReportTemplate(segments.toArray(String[]::new), slots.toArray(Slot[]::new), template.length());
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     */
+    void render(AnnualReportData data, StringBuilder out) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            slots[i].append(out, data);
+        }
+        out.append(segments[slots.length]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.ms.sw.employee.service;
+
+import java.util.Arrays;
+
+import static com.ms.sw.employee.service.AgorotPayrollCalculator.RATE_SCALE;
+
+/**
+ * Progressive bracket table used for income tax and national insurance.
+ *
+ * <p>Brackets are described by their ascending upper limits and one rate per bracket, the last
+ * bracket being unbounded. The tax accumulated below every bracket is precomputed, so a lookup is
+ * a binary search to the bracket followed by a single multiply-add.</p>
+ *
+ * <p>Both {@code double} shekel amounts and fixed-point amounts of {@link AgorotPayrollCalculator}
+ * are supported.</p>
+ */
+public final class BracketTable {
+
+    private static final long E4 = 10_000L;
+
+    private final double[] limits;
+    private final double[] rates;
+    private final double[] cumulativeTax;
+
+    private final long[] limitsAgorot;
+    private final long[] limitsE4;
+    private final long[] scaledRates;
+    private final long[] cumulativeTaxE4;
+
+    /**
+     * @param limits upper limit of every bracket except the last one, in shekels, ascending
+     * @param rates  rate of every bracket, one more than {@code limits}
+     */
+    public BracketTable(double[] limits, double[] rates) {
+        if (rates.length != limits.length + 1) {
+            throw new IllegalArgumentException("Bracket table needs exactly one rate more than limits");
+        }
+        for (int i = 1; i < limits.length; i++) {
+            if (limits[i] <= limits[i - 1]) {
+                throw new IllegalArgumentException("Bracket limits must be ascending");
+            }
+        }
+        this.limits = limits.clone();
+        this.rates = rates.clone();
+        this.cumulativeTax = new double[rates.length];
+
+        this.limitsAgorot = new long[limits.length];
+        this.limitsE4 = new long[limits.length];
+        this.scaledRates = new long[rates.length];
+        this.cumulativeTaxE4 = new long[rates.length];
+
+        for (int i = 0; i < rates.length; i++) {
+            scaledRates[i] = AgorotPayrollCalculator.toRate(rates[i]);
+        }
+        for (int i = 0; i < limits.length; i++) {
+            double lower = i == 0 ? 0 : limits[i - 1];
+            cumulativeTax[i + 1] = cumulativeTax[i] + (limits[i] - lower) * rates[i];
+
+            limitsAgorot[i] = AgorotPayrollCalculator.toAgorot(limits[i]);
+            limitsE4[i] = limitsAgorot[i] * E4;
+            long lowerAgorot = i == 0 ? 0 : limitsAgorot[i - 1];
+            cumulativeTaxE4[i + 1] = cumulativeTaxE4[i] + (limitsAgorot[i] - lowerAgorot) * scaledRates[i];
+        }
+    }
+
+    /**
+     * Tax of a shekel amount.
+     */
+    public double apply(double amount) {
+        if (amount <= 0) {
+            return 0;
+        }
+        int bracket = bracketOf(Arrays.binarySearch(limits, amount));
+        double lower = bracket == 0 ? 0 : limits[bracket - 1];
+        return cumulativeTax[bracket] + (amount - lower) * rates[bracket];
+    }
+
+    /**
+     * Tax of an amount in agorot, in agorot × {@value AgorotPayrollCalculator#RATE_SCALE}.
+     */
+    public long applyAgorot(long agorot) {
+        if (agorot <= 0) {
+            return 0;
+        }
+        int bracket = bracketOf(Arrays.binarySearch(limitsAgorot, agorot));
+        long lower = bracket == 0 ? 0 : limitsAgorot[bracket - 1];
+        return cumulativeTaxE4[bracket] + (agorot - lower) * scaledRates[bracket];
+    }
+
+    /**
+     * Tax of an amount in agorot × {@value AgorotPayrollCalculator#RATE_SCALE},
+     * in agorot × {@value AgorotPayrollCalculator#RATE_SCALE}<sup>2</sup>.
+     */
+    public long applyE4(long amountE4) {
+        if (amountE4 <= 0) {
+            return 0;
+        }
+        int bracket = bracketOf(Arrays.binarySearch(limitsE4, amountE4));
+        long lower = bracket == 0 ? 0 : limitsE4[bracket - 1];
+        return cumulativeTaxE4[bracket] * RATE_SCALE + (amountE4 - lower) * scaledRates[bracket];
+    }
+
+    /**
+     * An amount equal to a limit belongs to the bracket the limit closes.
+     */
+    private static int bracketOf(int searchResult) {
+        return searchResult >= 0 ? searchResult : -searchResult - 1;
+    }
+}
@@ -157,4 +157,26 @@ public class EmployeesService {
                 .orElseThrow(() -> new EmployeeNotFoundException(
                         "Employee not found: " + personalId));
     }
+
+    /**
+     * Returns a reference to an employee whose id is already known, without loading the row.
+     *
+     * @param employeeId id of the employee
+     * @return lazy reference to the {@link Employees} entity
+     */
+    public Employees getEmployeeReference(long employeeId) {
+        return employeeRepository.getReferenceById(employeeId);
+    }
+
+    /**
+     * Locks an employee until the current transaction ends, so salary records of the employee are
+     * replaced one at a time.
+     *
+     * @param employeeId id of the employee
+     * @return the locked {@link Employees} entity
+     */
+    public Employees lockEmployee(long employeeId) {
+        return employeeRepository.lockById(employeeId)
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee not found: " + employeeId));
+    }
 }
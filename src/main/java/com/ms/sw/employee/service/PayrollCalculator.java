@@ -0,0 +1,270 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendancePayrollDto;
+import com.ms.sw.attendance.service.AttendanceMonthSummarizer;
+import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.user.model.User;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Calculates the salary slip breakdown of a single employee for one month.
+ *
+ * <p>All amounts are calculated in {@code double}; only the gross total is rounded to agorot.
+ * Income tax and national insurance use the {@link PayrollTaxTables} table of the slip month.</p>
+ *
+ * @see AgorotPayrollCalculator
+ */
+@Component
+public class PayrollCalculator {
+
+    private final PayrollTaxTables taxTables;
+
+    public PayrollCalculator(PayrollTaxTables taxTables) {
+        this.taxTables = taxTables;
+    }
+
+    /**
+     * Calculates gross salary, deductions, net salary and employer costs.
+     *
+     * @param user          owner of the employee, used for the company details
+     * @param employee      employee payroll details
+     * @param attendance    attendance summary of the month
+     * @param salaryDetails salary details of the employee
+     * @return the full salary slip breakdown
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    AttendanceMonthSummaryDto attendance,
+                                    SalaryDetailsDto salaryDetails) {
+        return calculate(user, employee, attendance, salaryDetails, PayrollParameters.DEFAULTS);
+    }
+
+    /**
+     * Calculates the salary slip from the attendance rows of the month.
+     *
+     * @param attendance attendance rows of the month, must not be empty
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    List<AttendancePayrollDto> attendance,
+                                    SalaryDetailsDto salaryDetails) {
+        return calculate(user, employee, attendance, salaryDetails, PayrollParameters.DEFAULTS);
+    }
+
+    /**
+     * Calculates the salary slip from the attendance rows of the month with the given payroll rates
+     * and limits instead of {@link PayrollConstants}.
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    List<AttendancePayrollDto> attendance,
+                                    SalaryDetailsDto salaryDetails,
+                                    PayrollParameters parameters) {
+
+        AttendanceMonthSummaryDto summary = AttendanceMonthSummarizer.summarize(
+                employee.personalId(), YearMonth.from(attendance.getFirst().date()), attendance,
+                parameters.regularDailyHoursLimit(), parameters.overtime125Limit());
+        return calculate(user, employee, summary, salaryDetails, parameters);
+    }
+
+    /**
+     * Calculates the salary slip with the given payroll rates instead of {@link PayrollConstants}.
+     * The attendance summary must have been summed with the daily hour limits of {@code parameters}.
+     */
+    public SalarySlipData calculate(User user, EmployeePayrollDto employee,
+                                    AttendanceMonthSummaryDto attendance,
+                                    SalaryDetailsDto salaryDetails,
+                                    PayrollParameters parameters) {
+
+        YearMonth period = YearMonth.of(attendance.year(), attendance.month());
+        PayrollTaxYear taxYear = taxTables.forPeriod(period.getYear(), period.getMonthValue());
+
+        OvertimeResult overtimeHours = new OvertimeResult(
+                attendance.regularHours(), attendance.hours125(), attendance.hours150());
+        long travelDays = attendance.travelDays();
+
+        GrossSalaryResult grossSalary = calculateGrossSalary(
+                parameters,
+                overtimeHours,
+                travelDays,
+                salaryDetails.salaryPerHour()
+        );
+
+        DeductionsResult deductions = calculateDeductions(
+                parameters,
+                taxYear,
+                grossSalary.total(),
+                salaryDetails.creditPoints()
+        );
+
+        double netSalary = grossSalary.total() - deductions.total();
+        double employerCost = calculateEmployerCost(grossSalary.total(), deductions);
+
+        return buildSalarySlipData(
+                user, employee, period, salaryDetails,
+                overtimeHours, travelDays, grossSalary, deductions, netSalary, employerCost
+        );
+    }
+
+    /**
+     * GROSS SALARY CALCULATION
+     */
+    private record GrossSalaryResult(
+            double regularPay,
+            double overtime125Pay,
+            double overtime150Pay,
+            double travelAllowance,
+            double total
+    ) {}
+
+    private GrossSalaryResult calculateGrossSalary(PayrollParameters parameters,
+                                                   OvertimeResult hours,
+                                                   long travelDays,
+                                                   double hourlyRate) {
+        double regularPay = hours.regularHours() * hourlyRate;
+        double overtime125Pay = hours.hours125() * hourlyRate * parameters.rate125();
+        double overtime150Pay = hours.hours150() * hourlyRate * parameters.rate150();
+        double travelAllowance = travelDays * parameters.dailyTravelRate();
+
+        double total = roundToAgorot(regularPay + overtime125Pay + overtime150Pay + travelAllowance);
+
+        return new GrossSalaryResult(
+                regularPay, overtime125Pay, overtime150Pay, travelAllowance, total
+        );
+    }
+
+    /**
+     * DEDUCTIONS CALCULATION
+     */
+    private record DeductionsResult(
+            double employeePension,
+            double nationalInsurance,
+            double incomeTax,
+            double total,
+            SocialContributionsResult socialContributions,
+            NationalInsuranceResult niResult,
+            IncomeTaxResult taxResult
+    ) {}
+
+    private DeductionsResult calculateDeductions(PayrollParameters parameters, PayrollTaxYear taxYear,
+                                                 double grossSalary, double creditPoints) {
+        SocialContributionsResult social = calculatePensionContributions(parameters, grossSalary);
+        NationalInsuranceResult ni = calculateNationalInsurance(taxYear, grossSalary);
+
+        double taxableIncome = grossSalary - social.employeePension();
+        IncomeTaxResult tax = calculateIncomeTax(taxYear, taxableIncome, creditPoints);
+
+        double total = social.employeePension() + ni.employeeDeduction() + tax.netTax();
+
+        return new DeductionsResult(
+                social.employeePension(),
+                ni.employeeDeduction(),
+                tax.netTax(),
+                total,
+                social,
+                ni,
+                tax
+        );
+    }
+
+    private double calculateEmployerCost(double grossSalary, DeductionsResult deductions) {
+        return grossSalary +
+                deductions.socialContributions().totalEmployerSocials() +
+                deductions.niResult().employerContribution();
+    }
+
+    /**
+     * OVERTIME HOURS, split per day by {@link AttendanceMonthSummarizer}.
+     */
+    public record OvertimeResult(double regularHours, double hours125, double hours150) {}
+
+    /**
+     * PENSION & SEVERANCE
+     */
+    public record SocialContributionsResult(
+            double employeePension,
+            double employerPension,
+            double employerSeverance,
+            double totalEmployerSocials
+    ) {}
+
+    private SocialContributionsResult calculatePensionContributions(PayrollParameters parameters, double pensionableSalary) {
+        double employeePension = pensionableSalary * parameters.pensionEmployeeRate();
+        double employerPension = pensionableSalary * parameters.pensionEmployerRate();
+        double employerSeverance = pensionableSalary * parameters.severanceEmployerRate();
+        double totalEmployerSocials = employerPension + employerSeverance;
+
+        return new SocialContributionsResult(
+                employeePension, employerPension, employerSeverance, totalEmployerSocials
+        );
+    }
+
+    /**
+     * NATIONAL INSURANCE
+     */
+    public record NationalInsuranceResult(double employeeDeduction, double employerContribution) {}
+
+    private NationalInsuranceResult calculateNationalInsurance(PayrollTaxYear taxYear, double grossSalary) {
+        double employeeDeduction = taxYear.employeeNi().apply(grossSalary);
+        double employerContribution = taxYear.employerNi().apply(grossSalary);
+        return new NationalInsuranceResult(employeeDeduction, employerContribution);
+    }
+
+    /**
+     * INCOME TAX
+     */
+    public record IncomeTaxResult(double grossTax, double creditPointsValue, double netTax) {}
+
+    private IncomeTaxResult calculateIncomeTax(PayrollTaxYear taxYear, double taxableSalary, double creditPoints) {
+        double grossTax = taxYear.incomeTax().apply(taxableSalary);
+        double totalCreditDiscount = creditPoints * taxYear.creditPointValue();
+        double netTax = Math.max(0, grossTax - totalCreditDiscount);
+
+        return new IncomeTaxResult(grossTax, totalCreditDiscount, netTax);
+    }
+
+    /**
+     * DATA BUILDING
+     */
+    private SalarySlipData buildSalarySlipData(
+            User user, EmployeePayrollDto employee, YearMonth period,
+            SalaryDetailsDto salaryDetails, OvertimeResult hours, long travelDays,
+            GrossSalaryResult gross, DeductionsResult deductions,
+            double netSalary, double employerCost) {
+
+        double taxableIncome = gross.total() - deductions.employeePension();
+
+        return new SalarySlipData(
+                user.getCompanyName(), user.getCompanyId(), user.getCompanyAddress(),
+                period.getYear(), period.getMonthValue(),
+                employee.employeeName(), employee.personalId(), employee.department(),
+                LocalDate.now(),
+                salaryDetails.pensionFund(),salaryDetails.providentFund(),salaryDetails.insuranceCompany(),
+                hours.regularHours(), hours.hours125(), hours.hours150(), travelDays,
+                salaryDetails.salaryPerHour(),
+                gross.regularPay(), gross.overtime125Pay(), gross.overtime150Pay(),
+                gross.travelAllowance(), gross.total(),
+                deductions.employeePension(), deductions.nationalInsurance(),
+                taxableIncome, deductions.incomeTax(), deductions.total(), netSalary,
+                salaryDetails.creditPoints(),
+                deductions.socialContributions().employerPension(),
+                deductions.socialContributions().employerSeverance(),
+                deductions.niResult().employerContribution(),
+                employerCost
+        );
+    }
+
+    /**
+     * UTILITY
+     */
+    private double roundToAgorot(double amount) {
+        return BigDecimal.valueOf(amount)
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
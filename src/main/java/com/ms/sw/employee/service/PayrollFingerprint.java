@@ -0,0 +1,96 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.user.model.User;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 fingerprint of everything a salary slip is calculated and rendered from.
+ *
+ * <p>Covers the company details of the user, the employee, the attendance summary of the month,
+ * the salary details, {@link PayrollParameters#DEFAULTS}, the tax table in effect
+ * and {@link PayrollConstants#RULES_VERSION}. Two payroll runs with the same fingerprint produce
+ * the same slip.</p>
+ */
+final class PayrollFingerprint {
+
+    private final MessageDigest digest;
+    private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+    private PayrollFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return the fingerprint as 64 lowercase hex characters
+     */
+    static String of(User user, EmployeePayrollDto employee, AttendanceMonthSummaryDto attendance,
+                     SalaryDetailsDto salaryDetails, YearMonth taxTableEffectiveFrom) {
+
+        PayrollFingerprint fingerprint = new PayrollFingerprint();
+
+        fingerprint.add(PayrollConstants.RULES_VERSION)
+                .add(PayrollParameters.DEFAULTS.toString())
+                .add(taxTableEffectiveFrom.toString());
+
+        fingerprint.add(user.getCompanyName())
+                .add(user.getCompanyId())
+                .add(user.getCompanyAddress());
+
+        fingerprint.add(employee.personalId())
+                .add(employee.employeeName())
+                .add(employee.department());
+
+        fingerprint.add(salaryDetails.pensionFund())
+                .add(salaryDetails.providentFund())
+                .add(salaryDetails.insuranceCompany())
+                .add(salaryDetails.totalSeekDays())
+                .add(salaryDetails.totalVacationDays())
+                .add(salaryDetails.salaryPerHour())
+                .add(salaryDetails.seniority())
+                .add(salaryDetails.creditPoints());
+
+        fingerprint.add(attendance.year())
+                .add(attendance.month())
+                .add(attendance.regularHours())
+                .add(attendance.hours125())
+                .add(attendance.hours150())
+                .add(attendance.travelDays())
+                .add(attendance.presentDays())
+                .add(attendance.sickDays())
+                .add(attendance.vacationDays())
+                .add(attendance.totalDays());
+
+        return HexFormat.of().formatHex(fingerprint.digest.digest());
+    }
+
+    private PayrollFingerprint add(String value) {
+        if (value == null) {
+            return add(-1L);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        add(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    private PayrollFingerprint add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    private PayrollFingerprint add(long value) {
+        digest.update(buffer.clear().putLong(value).array());
+        return this;
+    }
+}
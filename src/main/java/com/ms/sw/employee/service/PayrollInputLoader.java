@@ -0,0 +1,87 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.service.AttendanceSummaryService;
+import com.ms.sw.employee.dto.EmployeeSalaryDetailsDto;
+import com.ms.sw.employee.dto.PayrollEmployeeDto;
+import com.ms.sw.employee.dto.PayrollInput;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.repo.EmployeeRepository;
+import com.ms.sw.employee.repo.SalaryDetailsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.util.*;
+
+/**
+ * Loads payroll input rows for many employees at once.
+ *
+ * <p>Employee, salary details and monthly attendance summaries are fetched with one query each per
+ * chunk of {@value #CHUNK_SIZE} employees, instead of three queries per employee, and grouped in
+ * memory by personal ID. Attendance is read from {@link AttendanceSummaryService}, one row per
+ * employee instead of every day of the month.</p>
+ */
+@Service
+@Slf4j
+public class PayrollInputLoader {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final EmployeeRepository employeeRepository;
+    private final SalaryDetailsRepository salaryDetailsRepository;
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    public PayrollInputLoader(EmployeeRepository employeeRepository,
+                              SalaryDetailsRepository salaryDetailsRepository,
+                              AttendanceSummaryService attendanceSummaryService) {
+        this.employeeRepository = employeeRepository;
+        this.salaryDetailsRepository = salaryDetailsRepository;
+        this.attendanceSummaryService = attendanceSummaryService;
+    }
+
+    /**
+     * Loads the payroll input of the given employees for one month.
+     *
+     * @param username    owner of the employees
+     * @param personalIds personal IDs of the employees to load
+     * @param year        payroll year
+     * @param month       payroll month
+     * @return payroll input keyed by personal ID, employees not owned by the user are absent
+     */
+    public Map<String, PayrollInput> load(String username, Collection<String> personalIds, int year, int month) {
+
+        List<String> ids = List.copyOf(new LinkedHashSet<>(personalIds));
+        Map<String, PayrollInput> result = HashMap.newHashMap(ids.size());
+
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            loadChunk(username, chunk, year, month, result);
+        }
+
+        log.debug("Loaded payroll input of {} employees for user {} ({}/{})", result.size(), username, month, year);
+        return result;
+    }
+
+    private void loadChunk(String username, List<String> personalIds,
+                           int year, int month,
+                           Map<String, PayrollInput> result) {
+
+        List<PayrollEmployeeDto> employees = employeeRepository.getEmployeesPayrollByPersonalIds(username, personalIds);
+
+        Map<String, SalaryDetailsDto> salaryDetails = new HashMap<>();
+        for (EmployeeSalaryDetailsDto row : salaryDetailsRepository.findSalaryDetailsOfEmployees(username, personalIds)) {
+            salaryDetails.put(row.personalId(), row.toSalaryDetailsDto());
+        }
+
+        Map<String, AttendanceMonthSummaryDto> attendance =
+                attendanceSummaryService.getSummaries(username, personalIds, year, month);
+
+        for (PayrollEmployeeDto employee : employees) {
+            result.put(employee.personalId(), new PayrollInput(
+                    employee.employeeId(),
+                    employee.toEmployeePayrollDto(),
+                    salaryDetails.get(employee.personalId()),
+                    attendance.get(employee.personalId())
+            ));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.PayrollParametersOverride;
+
+import static com.ms.sw.employee.service.PayrollConstants.*;
+
+/**
+ * Payroll rates and limits used by {@link PayrollCalculator}.
+ *
+ * <p>{@link #DEFAULTS} holds the values of {@link PayrollConstants}; other instances are only used
+ * to simulate changes to them.</p>
+ */
+public record PayrollParameters(
+        double dailyTravelRate,
+        double pensionEmployeeRate,
+        double pensionEmployerRate,
+        double severanceEmployerRate,
+        double regularDailyHoursLimit,
+        double overtime125Limit,
+        double rate125,
+        double rate150
+) {
+
+    public static final PayrollParameters DEFAULTS = new PayrollParameters(
+            DAILY_TRAVEL_RATE,
+            PENSION_EMPLOYEE_RATE,
+            PENSION_EMPLOYER_RATE,
+            SEVERANCE_EMPLOYER_RATE,
+            REGULAR_DAILY_HOURS_LIMIT,
+            OVERTIME_125_LIMIT,
+            RATE_125,
+            RATE_150
+    );
+
+    /**
+     * Returns these parameters with every non-null value of {@code override} replaced.
+     */
+    public PayrollParameters withOverrides(PayrollParametersOverride override) {
+        if (override == null) {
+            return this;
+        }
+        return new PayrollParameters(
+                valueOrDefault(override.dailyTravelRate(), dailyTravelRate),
+                valueOrDefault(override.pensionEmployeeRate(), pensionEmployeeRate),
+                valueOrDefault(override.pensionEmployerRate(), pensionEmployerRate),
+                valueOrDefault(override.severanceEmployerRate(), severanceEmployerRate),
+                valueOrDefault(override.regularDailyHoursLimit(), regularDailyHoursLimit),
+                valueOrDefault(override.overtime125Limit(), overtime125Limit),
+                valueOrDefault(override.rate125(), rate125),
+                valueOrDefault(override.rate150(), rate150)
+        );
+    }
+
+    private static double valueOrDefault(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,281 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.config.DbConcurrencyLimiter;
+import com.ms.sw.employee.dto.PayrollInput;
+import com.ms.sw.employee.dto.PayrollRetroProgressDto;
+import com.ms.sw.employee.dto.PayrollRetroRequest;
+import com.ms.sw.employee.dto.SalaryRecordDto;
+import com.ms.sw.employee.dto.SalaryRetroDifferenceDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.employee.repo.SalaryRetroDifferenceRepository;
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import com.ms.sw.user.model.ActionType;
+import com.ms.sw.user.model.User;
+import com.ms.sw.user.service.ActivityLogsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Service responsible for retroactive payroll recalculation of months that were already paid.
+ *
+ * <p>When salary details of an employee are corrected after the fact, the salary records of the
+ * requested months are recalculated from the stored attendance summaries and the current salary
+ * details. Every month is processed in its own virtual thread and the employees of a month are
+ * calculated in parallel on all cores; loading and saving go through {@link DbConcurrencyLimiter}.</p>
+ *
+ * <p>Only records whose net amount changed are updated. Each of them gets a
+ * {@link com.ms.sw.employee.model.SalaryRetroDifference} with the previous and recalculated net and
+ * its slip PDF is rendered again; unchanged records and their slips are left as they are.
+ * Progress is published to {@code /topic/payroll-retro/{username}} after every month.</p>
+ */
+@Service
+@Slf4j
+public class PayrollRetroService {
+
+    private static final String PROGRESS_TOPIC = "/topic/payroll-retro/";
+
+    private final SalaryRepository salaryRepository;
+    private final SalaryRetroDifferenceRepository salaryRetroDifferenceRepository;
+    private final PayrollInputLoader payrollInputLoader;
+    private final SalaryRecordService salaryRecordService;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollTaxTables taxTables;
+    private final ActivityLogsService activityLogsService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+    private final int maxMonths;
+
+    public PayrollRetroService(SalaryRepository salaryRepository,
+                               SalaryRetroDifferenceRepository salaryRetroDifferenceRepository,
+                               PayrollInputLoader payrollInputLoader,
+                               SalaryRecordService salaryRecordService,
+                               PayrollCalculator payrollCalculator,
+                               PayrollTaxTables taxTables,
+                               ActivityLogsService activityLogsService,
+                               SimpMessagingTemplate messagingTemplate,
+                               DbConcurrencyLimiter dbConcurrencyLimiter,
+                               @Value("${payroll.retro.max-months:36}") int maxMonths) {
+        this.salaryRepository = salaryRepository;
+        this.salaryRetroDifferenceRepository = salaryRetroDifferenceRepository;
+        this.payrollInputLoader = payrollInputLoader;
+        this.salaryRecordService = salaryRecordService;
+        this.payrollCalculator = payrollCalculator;
+        this.taxTables = taxTables;
+        this.activityLogsService = activityLogsService;
+        this.messagingTemplate = messagingTemplate;
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+        this.maxMonths = maxMonths;
+    }
+
+    /**
+     * Starts a retroactive recalculation in the background.
+     *
+     * @return the initial progress, including the id the differences are recorded under
+     * @throws InvalidPayrollPeriodException if the range is invalid, in the future or longer than {@code payroll.retro.max-months}
+     */
+    public PayrollRetroProgressDto startRetro(User user, PayrollRetroRequest request) {
+
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = YearMonth.of(request.fromYear(), request.fromMonth());
+            to = YearMonth.of(request.toYear(), request.toMonth());
+        } catch (DateTimeException e) {
+            throw new InvalidPayrollPeriodException("Invalid payroll month");
+        }
+        if (from.isAfter(to) || to.isAfter(YearMonth.now())) {
+            throw new InvalidPayrollPeriodException("Invalid payroll period");
+        }
+
+        List<YearMonth> months = Stream.iterate(from, month -> !month.isAfter(to), month -> month.plusMonths(1)).toList();
+        if (months.size() > maxMonths) {
+            throw new InvalidPayrollPeriodException("Payroll period is longer than " + maxMonths + " months");
+        }
+
+        String retroId = UUID.randomUUID().toString();
+        log.info("Starting retroactive payroll {} for user {} ({} to {}, employee {})",
+                retroId, user.getUsername(), from, to, request.personalId() != null ? request.personalId() : "all");
+
+        Thread.ofVirtual()
+                .name("payroll-retro-" + retroId)
+                .start(() -> executeRetro(retroId, user, request.personalId(), months));
+
+        return new PayrollRetroProgressDto(retroId, months.size(), 0, 0, 0, 0, 0, false);
+    }
+
+    /**
+     * Returns the net differences recorded by a retroactive recalculation of the user.
+     */
+    public List<SalaryRetroDifferenceDto> getDifferences(User user, String retroId) {
+        return salaryRetroDifferenceRepository.findDifferencesOfRetro(retroId, user.getUsername());
+    }
+
+    private void executeRetro(String retroId, User user, String personalId, List<YearMonth> months) {
+
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress(retroId, months.size());
+
+        try {
+            Map<YearMonth, List<SalaryRecordDto>> records;
+            try (var _ = dbConcurrencyLimiter.acquire()) {
+                records = latestRecordsByMonth(salaryRepository.findSalaryRecordsInPeriod(
+                        user.getUsername(), personalId, period(months.getFirst()), period(months.getLast())));
+            }
+
+            try (var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.<Void>awaitAll())) {
+                for (YearMonth month : months) {
+                    List<SalaryRecordDto> monthRecords = records.getOrDefault(month, List.of());
+                    scope.fork(() -> {
+                        try {
+                            recalculateMonth(retroId, user, month, monthRecords, progress);
+                        } catch (Exception e) {
+                            log.error("Retroactive payroll {} failed for {}: {}", retroId, month, e.getMessage());
+                            progress.failedMonths.incrementAndGet();
+                        } finally {
+                            progress.processedMonths.incrementAndGet();
+                            publishProgress(user, progress.snapshot(false));
+                        }
+                        return null;
+                    });
+                }
+                scope.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Retroactive payroll {} was interrupted", retroId);
+            return;
+        }
+
+        PayrollRetroProgressDto summary = progress.snapshot(true);
+        publishProgress(user, summary);
+        activityLogsService.logAction(ActionType.GENERATED_PAYROLL,
+                String.format("חישוב רטרו %s עד %s", months.getFirst(), months.getLast()), user.getUsername());
+
+        log.info("Retroactive payroll {} finished in {} ms: {} recalculated, {} changed, {} failed months",
+                retroId, System.currentTimeMillis() - start, summary.recalculated(), summary.changed(), summary.failedMonths());
+    }
+
+    /**
+     * Recalculates the salary records of one month and saves the records whose net amount changed.
+     */
+    private void recalculateMonth(String retroId, User user, YearMonth month,
+                                  List<SalaryRecordDto> records, Progress progress) throws InterruptedException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        Map<String, PayrollInput> inputs;
+        try (var _ = dbConcurrencyLimiter.acquire()) {
+            inputs = payrollInputLoader.load(user.getUsername(),
+                    records.stream().map(SalaryRecordDto::personalId).toList(),
+                    month.getYear(), month.getMonthValue());
+        }
+
+        YearMonth taxTableEffectiveFrom = taxTables.forPeriod(month.getYear(), month.getMonthValue()).effectiveFrom();
+
+        // the calculation holds no connection, so the employees of the month are spread over all cores
+        List<Recalculation> recalculated = records.parallelStream()
+                .map(record -> recalculate(user, record, inputs.get(record.personalId()), taxTableEffectiveFrom))
+                .filter(Objects::nonNull)
+                .toList();
+        progress.recalculated.addAndGet(recalculated.size());
+
+        for (Recalculation recalculation : recalculated) {
+            if (!recalculation.netChanged()) {
+                continue;
+            }
+            try (var _ = dbConcurrencyLimiter.acquire()) {
+                salaryRecordService.saveRetro(user, retroId, recalculation.record(),
+                        recalculation.data(), recalculation.fingerprint());
+            }
+            progress.changed.incrementAndGet();
+            progress.netDifferenceAgorot.addAndGet(
+                    agorot(recalculation.data().netSalary()) - agorot(recalculation.record().salaryAmount()));
+        }
+    }
+
+    /**
+     * Recalculates a single salary record, {@code null} if the employee has no attendance or salary details for the month.
+     */
+    private Recalculation recalculate(User user, SalaryRecordDto record, PayrollInput input,
+                                      YearMonth taxTableEffectiveFrom) {
+        if (input == null || input.attendance() == null || input.attendance().totalDays() == 0
+                || input.salaryDetails() == null) {
+            log.warn("Skipping retroactive payroll of {} for {}/{}, input not found",
+                    record.personalId(), record.month(), record.year());
+            return null;
+        }
+
+        SalarySlipData data = payrollCalculator.calculate(user, input.employee(), input.attendance(), input.salaryDetails());
+        String fingerprint = PayrollFingerprint.of(user, input.employee(), input.attendance(), input.salaryDetails(),
+                taxTableEffectiveFrom);
+        return new Recalculation(record, data, fingerprint);
+    }
+
+    /**
+     * Keeps the latest salary record of every employee and month, records are ordered newest first.
+     */
+    private static Map<YearMonth, List<SalaryRecordDto>> latestRecordsByMonth(List<SalaryRecordDto> records) {
+        Set<String> seen = new HashSet<>();
+        Map<YearMonth, List<SalaryRecordDto>> result = new HashMap<>();
+        for (SalaryRecordDto record : records) {
+            if (seen.add(record.employeeId() + "/" + record.year() + "/" + record.month())) {
+                result.computeIfAbsent(YearMonth.of(record.year(), record.month()), _ -> new ArrayList<>()).add(record);
+            }
+        }
+        return result;
+    }
+
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static long agorot(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private void publishProgress(User user, PayrollRetroProgressDto progress) {
+        messagingTemplate.convertAndSend(PROGRESS_TOPIC + user.getUsername(), progress);
+    }
+
+    private record Recalculation(SalaryRecordDto record, SalarySlipData data, String fingerprint) {
+
+        boolean netChanged() {
+            return agorot(data.netSalary()) != agorot(record.salaryAmount());
+        }
+    }
+
+    /**
+     * Counters of a running recalculation, updated by the month threads.
+     */
+    private static final class Progress {
+
+        private final String retroId;
+        private final int months;
+        private final AtomicInteger processedMonths = new AtomicInteger();
+        private final AtomicInteger failedMonths = new AtomicInteger();
+        private final AtomicInteger recalculated = new AtomicInteger();
+        private final AtomicInteger changed = new AtomicInteger();
+        private final AtomicLong netDifferenceAgorot = new AtomicLong();
+
+        Progress(String retroId, int months) {
+            this.retroId = retroId;
+            this.months = months;
+        }
+
+        PayrollRetroProgressDto snapshot(boolean completed) {
+            return new PayrollRetroProgressDto(retroId, months, processedMonths.get(), failedMonths.get(),
+                    recalculated.get(), changed.get(), netDifferenceAgorot.get() / 100.0, completed);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.EmployeeOptionDto;
+import com.ms.sw.attendance.service.AttendanceService;
+import com.ms.sw.config.DbConcurrencyLimiter;
+import com.ms.sw.employee.dto.PayrollInput;
+import com.ms.sw.employee.dto.PayrollRunItemDto;
+import com.ms.sw.employee.dto.PayrollRunProgressDto;
+import com.ms.sw.employee.dto.PayrollRunSummaryDto;
+import com.ms.sw.employee.model.PayrollRun;
+import com.ms.sw.employee.model.PayrollRunItem;
+import com.ms.sw.employee.model.PayrollRunItemStatus;
+import com.ms.sw.employee.model.PayrollRunStatus;
+import com.ms.sw.employee.repo.PayrollRunItemRepository;
+import com.ms.sw.employee.repo.PayrollRunRepository;
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import com.ms.sw.notifications.service.NotificationService;
+import com.ms.sw.user.model.ActionType;
+import com.ms.sw.user.model.User;
+import com.ms.sw.user.service.ActivityLogsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service responsible for month-end payroll runs over every active employee of a user.
+ *
+ * <p>A run is persisted as a {@link PayrollRun} with one {@link PayrollRunItem} checkpoint per
+ * employee. Payroll input of the pending employees is loaded up front by {@link PayrollInputLoader},
+ * then each employee is processed in its own virtual thread through
+ * {@link SalaryService#calculateSalary(User, PayrollInput)} and its checkpoint is marked done or failed.
+ * The number of employees processed at the same time is bounded by {@code payroll.run.parallelism}
+ * and, across all runs, by the database permits of {@link DbConcurrencyLimiter}.
+ * Failed employees are retried in further rounds until they have failed {@code payroll.run.max-attempts} times.</p>
+ *
+ * <p>Runs left unfinished by a restart are resumed on startup, and a run can be resumed on demand
+ * through {@link #resumeRun(User, String)}. Employees already done are skipped, and an employee whose
+ * salary was saved before the interruption is not recalculated, see {@link PayrollFingerprint}.</p>
+ *
+ * <p>Progress is published to {@code /topic/payroll-run/{username}} after every employee and the
+ * run finishes with a single summary message, notification and activity log. A run stopped by an
+ * unexpected error is marked {@link PayrollRunStatus#FAILED} with a last progress message and a
+ * notification instead, and can be resumed on demand.</p>
+ */
+@Service
+@Slf4j
+public class PayrollRunService {
+
+    private static final String PROGRESS_TOPIC = "/topic/payroll-run/";
+
+    private final SalaryService salaryService;
+    private final PayrollInputLoader payrollInputLoader;
+    private final AttendanceService attendanceService;
+    private final NotificationService notificationService;
+    private final ActivityLogsService activityLogsService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PayrollRunRepository payrollRunRepository;
+    private final PayrollRunItemRepository payrollRunItemRepository;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
+    private final PayrollTaxTables taxTables;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Set<String> activeRuns = ConcurrentHashMap.newKeySet();
+
+    public PayrollRunService(SalaryService salaryService,
+                             PayrollInputLoader payrollInputLoader,
+                             AttendanceService attendanceService,
+                             NotificationService notificationService,
+                             ActivityLogsService activityLogsService,
+                             SimpMessagingTemplate messagingTemplate,
+                             PayrollRunRepository payrollRunRepository,
+                             PayrollRunItemRepository payrollRunItemRepository,
+                             DbConcurrencyLimiter dbConcurrencyLimiter,
+                             PayrollTaxTables taxTables,
+                             @Value("${payroll.run.parallelism:8}") int parallelism,
+                             @Value("${payroll.run.max-attempts:3}") int maxAttempts) {
+        this.salaryService = salaryService;
+        this.payrollInputLoader = payrollInputLoader;
+        this.attendanceService = attendanceService;
+        this.notificationService = notificationService;
+        this.activityLogsService = activityLogsService;
+        this.messagingTemplate = messagingTemplate;
+        this.payrollRunRepository = payrollRunRepository;
+        this.payrollRunItemRepository = payrollRunItemRepository;
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
+        this.taxTables = taxTables;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Starts a payroll run for all active employees of the user in the background.
+     *
+     * @param user  the user who owns the employees
+     * @param year  payroll year
+     * @param month payroll month
+     * @return the initial progress of the run, including its id
+     * @throws InvalidPayrollPeriodException if the month is invalid or has no tax table
+     */
+    public PayrollRunProgressDto startRun(User user, int year, int month) {
+
+        // reject the month before anything is persisted, every employee would fail on it
+        taxTables.forPeriod(year, month);
+
+        List<EmployeeOptionDto> employees = attendanceService.getMapOfEmployees(user.getUsername());
+
+        PayrollRun run = new PayrollRun();
+        run.setId(UUID.randomUUID().toString());
+        run.setUser(user);
+        run.setPayrollYear(year);
+        run.setPayrollMonth(month);
+        payrollRunRepository.save(run);
+
+        payrollRunItemRepository.saveAll(employees.stream().map(employee -> {
+            PayrollRunItem item = new PayrollRunItem();
+            item.setRun(run);
+            item.setPersonalId(employee.personalId());
+            item.setEmployeeName(employee.name());
+            item.setDepartment(employee.department());
+            return item;
+        }).toList());
+
+        log.info("Starting payroll run {} for {} employees of user {} ({}/{})",
+                run.getId(), employees.size(), user.getUsername(), month, year);
+
+        launch(run.getId(), user, year, month);
+        return new PayrollRunProgressDto(run.getId(), year, month, employees.size(), 0, 0, 0);
+    }
+
+    /**
+     * Resumes a payroll run of the user from its last checkpoint.
+     *
+     * <p>Employees already done are skipped and employees that ran out of attempts get a new set
+     * of {@code payroll.run.max-attempts} attempts. A run that is still in progress is left as is.</p>
+     *
+     * @return the current progress of the run, or empty if the user has no such run
+     */
+    public Optional<PayrollRunProgressDto> resumeRun(User user, String runId) {
+
+        Optional<PayrollRun> found = payrollRunRepository.findRunOfUser(runId, user.getUsername());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        PayrollRun run = found.get();
+
+        if (!activeRuns.contains(runId)) {
+            int reset = payrollRunItemRepository.resetFailedAttempts(runId);
+            payrollRunRepository.updateStatus(runId, PayrollRunStatus.RUNNING, null);
+            log.info("Resuming payroll run {} of user {}, retrying {} failed employees", runId, user.getUsername(), reset);
+            launch(runId, user, run.getPayrollYear(), run.getPayrollMonth());
+        }
+        return Optional.of(currentProgress(runId, run.getPayrollYear(), run.getPayrollMonth()));
+    }
+
+    /**
+     * Resumes the runs that were still running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        for (PayrollRun run : payrollRunRepository.findRunsInStatus(PayrollRunStatus.RUNNING)) {
+            log.warn("Resuming interrupted payroll run {} of user {} ({}/{})",
+                    run.getId(), run.getUser().getUsername(), run.getPayrollMonth(), run.getPayrollYear());
+            launch(run.getId(), run.getUser(), run.getPayrollYear(), run.getPayrollMonth());
+        }
+    }
+
+    private void launch(String runId, User user, int year, int month) {
+        if (!activeRuns.add(runId)) {
+            return;
+        }
+        Thread.ofVirtual()
+                .name("payroll-run-" + runId)
+                .start(() -> {
+                    try {
+                        executeRun(runId, user, year, month);
+                    } finally {
+                        activeRuns.remove(runId);
+                    }
+                });
+    }
+
+    private void executeRun(String runId, User user, int year, int month) {
+
+        long start = System.currentTimeMillis();
+        int total = Math.toIntExact(payrollRunItemRepository.countItems(runId));
+        AtomicInteger succeeded = new AtomicInteger(Math.toIntExact(
+                payrollRunItemRepository.countItemsInStatus(runId, PayrollRunItemStatus.DONE)));
+        AtomicInteger failed = new AtomicInteger(Math.toIntExact(
+                payrollRunItemRepository.countItemsInStatus(runId, PayrollRunItemStatus.FAILED)));
+
+        try {
+            // every failure uses up an attempt, the round limit only guards against checkpoints that could not be written
+            for (int round = 0; round < maxAttempts; round++) {
+                List<PayrollRunItemDto> items = payrollRunItemRepository.findItemsToProcess(runId, maxAttempts);
+                if (items.isEmpty()) {
+                    break;
+                }
+                processRound(runId, user, year, month, total, items, succeeded, failed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Payroll run {} was interrupted, it will be resumed from its last checkpoint", runId);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Payroll run {} of user {} failed, it can be resumed from its last checkpoint",
+                    runId, user.getUsername(), e);
+            failRun(runId, user, year, month, total, succeeded.get(), failed.get());
+            return;
+        }
+
+        payrollRunRepository.updateStatus(runId, PayrollRunStatus.COMPLETED, LocalDateTime.now());
+
+        PayrollRunSummaryDto summary = new PayrollRunSummaryDto(
+                runId, year, month, total,
+                succeeded.get(), failed.get(), payrollRunItemRepository.findFailedPersonalIds(runId),
+                System.currentTimeMillis() - start
+        );
+
+        messagingTemplate.convertAndSend(PROGRESS_TOPIC + user.getUsername(), summary);
+        notificationService.createPayrollRunSummary(user, year, month, summary.succeeded(), summary.failed());
+        activityLogsService.logAction(ActionType.SENT_TO_PAYROLL, String.format("לכל העובדים %02d/%d", month, year), user.getUsername());
+
+        log.info("Payroll run {} finished in {} ms: {} succeeded, {} failed",
+                runId, summary.durationMillis(), summary.succeeded(), summary.failed());
+    }
+
+    /**
+     * Marks a run stopped by an unexpected error as failed and tells the user with a last progress
+     * message and a notification. The counts are the ones reached in memory, since the error may
+     * have been the database itself.
+     */
+    private void failRun(String runId, User user, int year, int month, int total, int succeeded, int failed) {
+        publishProgress(user, new PayrollRunProgressDto(runId, year, month, total, succeeded + failed, succeeded, failed));
+        try {
+            payrollRunRepository.updateStatus(runId, PayrollRunStatus.FAILED, null);
+            notificationService.createPayrollRunFailed(user, year, month, succeeded, failed);
+        } catch (RuntimeException e) {
+            log.error("Failed to record payroll run {} as failed: {}", runId, e.getMessage());
+        }
+    }
+
+    /**
+     * Processes one attempt of every given employee and checkpoints the outcome of each.
+     */
+    private void processRound(String runId, User user, int year, int month, int total,
+                              List<PayrollRunItemDto> items,
+                              AtomicInteger succeeded, AtomicInteger failed) throws InterruptedException {
+
+        Semaphore permits = new Semaphore(parallelism);
+        Map<String, PayrollInput> inputs = payrollInputLoader.load(
+                user.getUsername(),
+                items.stream().map(PayrollRunItemDto::personalId).toList(),
+                year, month);
+
+        try (var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.<Void>awaitAll())) {
+
+            for (PayrollRunItemDto item : items) {
+                scope.fork(() -> {
+                    permits.acquire();
+                    try (var _ = dbConcurrencyLimiter.acquire()) {
+                        processItem(runId, user, item, inputs.get(item.personalId()), succeeded, failed);
+                    } finally {
+                        permits.release();
+                        publishProgress(user, new PayrollRunProgressDto(
+                                runId, year, month, total,
+                                succeeded.get() + failed.get(), succeeded.get(), failed.get()));
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        }
+    }
+
+    /**
+     * Processes a single employee and checkpoints the outcome.
+     */
+    private void processItem(String runId, User user, PayrollRunItemDto item, PayrollInput input,
+                             AtomicInteger succeeded, AtomicInteger failed) {
+
+        boolean failedBefore = item.status() == PayrollRunItemStatus.FAILED;
+        try {
+            processEmployee(user, input);
+            payrollRunItemRepository.markDone(item.id(), LocalDateTime.now());
+            succeeded.incrementAndGet();
+            if (failedBefore) {
+                failed.decrementAndGet();
+            }
+        } catch (Exception e) {
+            log.error("Payroll run {} failed for employee {}: {}", runId, item.personalId(), e.getMessage());
+            payrollRunItemRepository.markFailed(item.id(), e.getMessage(), LocalDateTime.now());
+            if (!failedBefore) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    private PayrollRunProgressDto currentProgress(String runId, int year, int month) {
+        int succeeded = Math.toIntExact(payrollRunItemRepository.countItemsInStatus(runId, PayrollRunItemStatus.DONE));
+        int failed = Math.toIntExact(payrollRunItemRepository.countItemsInStatus(runId, PayrollRunItemStatus.FAILED));
+        return new PayrollRunProgressDto(runId, year, month,
+                Math.toIntExact(payrollRunItemRepository.countItems(runId)),
+                succeeded + failed, succeeded, failed);
+    }
+
+    private void processEmployee(User user, PayrollInput input) {
+        if (input == null) {
+            throw new IllegalStateException("Payroll input not found");
+        }
+        // saving the salary also closes the month's attendance of the employee
+        salaryService.calculateSalary(user, input);
+    }
+
+    private void publishProgress(User user, PayrollRunProgressDto progress) {
+        messagingTemplate.convertAndSend(PROGRESS_TOPIC + user.getUsername(), progress);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.EmployeeOptionDto;
+import com.ms.sw.attendance.service.AttendanceService;
+import com.ms.sw.attendance.service.AttendanceSummaryService;
+import com.ms.sw.employee.dto.*;
+import com.ms.sw.user.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service responsible for what-if payroll simulations over all active employees of a user.
+ *
+ * <p>Payroll input is loaded once through {@link PayrollInputLoader}; every employee is then
+ * calculated twice in memory, with the current values and with the requested changes, in
+ * parallel. Nothing is rendered, persisted or notified. Totals are summed in agorot, so the
+ * result does not depend on the order the employees were calculated in.</p>
+ */
+@Service
+@Slf4j
+public class PayrollSimulationService {
+
+    private final PayrollInputLoader payrollInputLoader;
+    private final AttendanceService attendanceService;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final PayrollCalculator payrollCalculator;
+
+    public PayrollSimulationService(PayrollInputLoader payrollInputLoader,
+                                    AttendanceService attendanceService,
+                                    AttendanceSummaryService attendanceSummaryService,
+                                    PayrollCalculator payrollCalculator) {
+        this.payrollInputLoader = payrollInputLoader;
+        this.attendanceService = attendanceService;
+        this.attendanceSummaryService = attendanceSummaryService;
+        this.payrollCalculator = payrollCalculator;
+    }
+
+    /**
+     * Simulates the payroll of a month with the requested salary and constant changes.
+     */
+    public PayrollSimulationDto simulate(User user, PayrollSimulationRequest request) {
+
+        long start = System.currentTimeMillis();
+        PayrollParameters parameters = PayrollParameters.DEFAULTS.withOverrides(request.parameters());
+        Map<String, Double> salaryOverrides = request.salaryPerHour() != null ? request.salaryPerHour() : Map.of();
+        double raiseFactor = 1 + (request.salaryRaisePercent() != null ? request.salaryRaisePercent() / 100 : 0);
+
+        List<EmployeeOptionDto> employees = attendanceService.getMapOfEmployees(user.getUsername());
+        Map<String, PayrollInput> inputs = payrollInputLoader.load(
+                user.getUsername(),
+                employees.stream().map(EmployeeOptionDto::personalId).toList(),
+                request.year(), request.month());
+
+        List<String> skipped = new ArrayList<>();
+        List<PayrollInput> calculable = new ArrayList<>(inputs.size());
+        for (EmployeeOptionDto employee : employees) {
+            PayrollInput input = inputs.get(employee.personalId());
+            if (input == null || input.attendance() == null || input.salaryDetails() == null) {
+                skipped.add(employee.personalId());
+            } else {
+                calculable.add(input);
+            }
+        }
+
+        // stored summaries are split by the current daily limits, other limits need the daily rows again
+        Map<String, AttendanceMonthSummaryDto> simulatedAttendance = changesDailyLimits(parameters)
+                ? attendanceSummaryService.summarize(user.getUsername(),
+                        calculable.stream().map(input -> input.employee().personalId()).toList(),
+                        request.year(), request.month(),
+                        parameters.regularDailyHoursLimit(), parameters.overtime125Limit())
+                : Map.of();
+
+        Totals totals = calculable.parallelStream()
+                .map(input -> {
+                    SalarySlipData baseline = payrollCalculator.calculate(
+                            user, input.employee(), input.attendance(), input.salaryDetails());
+
+                    Double hourlyOverride = salaryOverrides.get(input.employee().personalId());
+                    double hourly = hourlyOverride != null
+                            ? hourlyOverride
+                            : input.salaryDetails().salaryPerHour() * raiseFactor;
+                    SalarySlipData simulated = payrollCalculator.calculate(
+                            user, input.employee(),
+                            simulatedAttendance.getOrDefault(input.employee().personalId(), input.attendance()),
+                            input.salaryDetails().withSalaryPerHour(hourly), parameters);
+
+                    return Totals.of(baseline, simulated);
+                })
+                .reduce(Totals.ZERO, Totals::plus);
+
+        PayrollSimulationDto result = new PayrollSimulationDto(
+                request.year(), request.month(), calculable.size(),
+                toShekels(totals.baselineGross, totals.baselineNet, totals.baselineCost),
+                toShekels(totals.simulatedGross, totals.simulatedNet, totals.simulatedCost),
+                toShekels(totals.simulatedGross - totals.baselineGross,
+                        totals.simulatedNet - totals.baselineNet,
+                        totals.simulatedCost - totals.baselineCost),
+                List.copyOf(skipped),
+                System.currentTimeMillis() - start
+        );
+
+        log.info("Payroll simulation for user {} ({}/{}): {} employees, {} skipped in {} ms",
+                user.getUsername(), request.month(), request.year(), result.employees(), skipped.size(), result.durationMillis());
+        return result;
+    }
+
+    private static boolean changesDailyLimits(PayrollParameters parameters) {
+        return parameters.regularDailyHoursLimit() != PayrollParameters.DEFAULTS.regularDailyHoursLimit()
+                || parameters.overtime125Limit() != PayrollParameters.DEFAULTS.overtime125Limit();
+    }
+
+    private static PayrollTotalsDto toShekels(long grossAgorot, long netAgorot, long costAgorot) {
+        return new PayrollTotalsDto(grossAgorot / 100.0, netAgorot / 100.0, costAgorot / 100.0);
+    }
+
+    /**
+     * Baseline and simulated totals in agorot.
+     */
+    private record Totals(long baselineGross, long baselineNet, long baselineCost,
+                          long simulatedGross, long simulatedNet, long simulatedCost) {
+
+        static final Totals ZERO = new Totals(0, 0, 0, 0, 0, 0);
+
+        static Totals of(SalarySlipData baseline, SalarySlipData simulated) {
+            return new Totals(
+                    agorot(baseline.grossSalary()), agorot(baseline.netSalary()), agorot(baseline.totalEmployerCost()),
+                    agorot(simulated.grossSalary()), agorot(simulated.netSalary()), agorot(simulated.totalEmployerCost()));
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(
+                    baselineGross + other.baselineGross, baselineNet + other.baselineNet, baselineCost + other.baselineCost,
+                    simulatedGross + other.simulatedGross, simulatedNet + other.simulatedNet, simulatedCost + other.simulatedCost);
+        }
+
+        private static long agorot(double amount) {
+            return Math.round(amount * 100);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import org.springframework.stereotype.Component;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Registry of the income tax and national insurance parameters of every supported tax year.
+ *
+ * <p>A payroll month uses the latest table that became effective on or before it, so recalculating
+ * a slip of a previous year applies the brackets of that year.</p>
+ */
+@Component
+public class PayrollTaxTables {
+
+    private static final double[] INCOME_TAX_RATES = {0.10, 0.14, 0.20, 0.31, 0.35, 0.47, 0.50};
+    private static final double[] NI_EMPLOYEE_RATES = {0.035, 0.12};
+    private static final double[] NI_EMPLOYER_RATES = {0.0355, 0.076};
+
+    private final NavigableMap<YearMonth, PayrollTaxYear> tables = new TreeMap<>();
+
+    public PayrollTaxTables() {
+        register(taxYear(YearMonth.of(2023, 1),
+                new double[]{6790, 9730, 15620, 21710, 45180, 58190},
+                7122, 235));
+
+        // Brackets are frozen from 2024 onwards, anything above the last bracket includes surtax
+        register(taxYear(YearMonth.of(2024, 1),
+                new double[]{7010, 10060, 16150, 22440, 46690, 60130},
+                7522, 242));
+    }
+
+    /**
+     * Returns the parameters in effect for the given payroll month.
+     *
+     * @throws InvalidPayrollPeriodException if the month is invalid or precedes every supported tax year
+     */
+    public PayrollTaxYear forPeriod(int year, int month) {
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new InvalidPayrollPeriodException("Invalid payroll month " + month + "/" + year);
+        }
+        Map.Entry<YearMonth, PayrollTaxYear> entry = tables.floorEntry(period);
+        if (entry == null) {
+            throw new InvalidPayrollPeriodException("No tax table for " + month + "/" + year
+                    + ", payroll is supported from " + tables.firstKey());
+        }
+        return entry.getValue();
+    }
+
+    private void register(PayrollTaxYear taxYear) {
+        tables.put(taxYear.effectiveFrom(), taxYear);
+    }
+
+    private static PayrollTaxYear taxYear(YearMonth effectiveFrom, double[] taxLimits,
+                                          double niThreshold, double creditPointValue) {
+        double[] niLimits = {niThreshold};
+        return new PayrollTaxYear(
+                effectiveFrom,
+                new BracketTable(taxLimits, INCOME_TAX_RATES),
+                new BracketTable(niLimits, NI_EMPLOYEE_RATES),
+                new BracketTable(niLimits, NI_EMPLOYER_RATES),
+                creditPointValue
+        );
+    }
+}
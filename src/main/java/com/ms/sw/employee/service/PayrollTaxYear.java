@@ -0,0 +1,20 @@
+package com.ms.sw.employee.service;
+
+import java.time.YearMonth;
+
+/**
+ * Income tax and national insurance parameters in effect from a given month.
+ *
+ * @param effectiveFrom     first payroll month the parameters apply to
+ * @param incomeTax         monthly income tax brackets
+ * @param employeeNi        employee national insurance and health tax brackets
+ * @param employerNi        employer national insurance brackets
+ * @param creditPointValue  monthly value of a single tax credit point
+ */
+public record PayrollTaxYear(
+        YearMonth effectiveFrom,
+        BracketTable incomeTax,
+        BracketTable employeeNi,
+        BracketTable employerNi,
+        double creditPointValue
+) {}
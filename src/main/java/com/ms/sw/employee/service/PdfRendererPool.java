@@ -0,0 +1,113 @@
+package com.ms.sw.employee.service;
+
+import com.lowagie.text.pdf.BaseFont;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of {@link ITextRenderer} instances with the slip fonts already registered.
+ *
+ * <p>The slip font is parsed once into a single {@link BaseFont} shared by every renderer, and only
+ * the glyphs a slip actually uses (Hebrew and Latin alike) are embedded in its PDF. The pool holds
+ * {@code salary.pdf.renderers} renderers (defaults to the number of processors); callers block
+ * until one is free. A renderer that fails is replaced by a new one.</p>
+ *
+ * <p>Time spent waiting for a renderer is recorded in {@code salary.pdf.pool.wait} and layout plus
+ * PDF writing in {@code salary.pdf.render}.</p>
+ */
+@Component
+@Slf4j
+public class PdfRendererPool {
+
+    private static final String FONT_PATH = "/fonts/ARIAL.TTF";
+    private static final String FONT_FAMILY = "Arial";
+
+    private final BlockingQueue<ITextRenderer> renderers;
+    private final BaseFont slipFont;
+    private final Timer waitTimer;
+    private final Timer renderTimer;
+
+    public PdfRendererPool(MeterRegistry meterRegistry, @Value("${salary.pdf.renderers:0}") int size) {
+        int poolSize = size > 0 ? size : Runtime.getRuntime().availableProcessors();
+
+        this.slipFont = loadSlipFont();
+        this.renderers = new ArrayBlockingQueue<>(poolSize);
+        this.waitTimer = Timer.builder("salary.pdf.pool.wait")
+                .description("Time spent waiting for a free PDF renderer")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("salary.pdf.render")
+                .description("Time spent laying out and writing a salary slip PDF")
+                .register(meterRegistry);
+
+        for (int i = 0; i < poolSize; i++) {
+            renderers.add(createRenderer());
+        }
+        log.info("PDF renderer pool ready with {} renderers", poolSize);
+    }
+
+    /**
+     * Lays out the HTML document and writes it as PDF to {@code out}.
+     */
+    public void render(String html, OutputStream out) throws IOException {
+
+        ITextRenderer renderer = acquire();
+        boolean healthy = false;
+        long start = System.nanoTime();
+        try {
+            renderer.setDocumentFromString(html);
+            renderer.layout();
+            renderer.createPDF(out);
+            healthy = true;
+        } catch (Exception e) {
+            throw new IOException("Failed to convert HTML to PDF", e);
+        } finally {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            renderers.add(healthy ? renderer : createRenderer());
+        }
+    }
+
+    private ITextRenderer acquire() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return renderers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a PDF renderer", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ITextRenderer createRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+        renderer.getFontResolver().setFontMapping(FONT_FAMILY, slipFont);
+        return renderer;
+    }
+
+    /**
+     * Loads the slip font once, embedded as a subset of the glyphs used by each document.
+     */
+    static BaseFont loadSlipFont() {
+        try (InputStream in = PdfRendererPool.class.getResourceAsStream(FONT_PATH)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing font " + FONT_PATH);
+            }
+            BaseFont font = BaseFont.createFont("ARIAL.TTF", BaseFont.IDENTITY_H, BaseFont.EMBEDDED,
+                    BaseFont.CACHED, in.readAllBytes(), null);
+            font.setSubset(true);
+            return font;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load font " + FONT_PATH, e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ms.sw.employee.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch of salary amounts with logarithmic buckets.
+ *
+ * <p>A positive amount {@code v} is counted in bucket {@code ceil(log(v) / log(gamma))}, with
+ * {@code gamma = (1 + a) / (1 - a)} for a relative accuracy {@code a} of {@value #RELATIVE_ACCURACY}.
+ * Every quantile is therefore within 1% of an amount that was added, and the size of the sketch only
+ * depends on the range of amounts, not on how many were added. Amounts of zero or less share one
+ * bucket and are reported as zero.</p>
+ *
+ * <p>Two sketches are merged by adding their bucket counts, so sketches of several months or
+ * departments give the same quantiles as a single sketch of all their amounts. An amount can be
+ * removed again, which lets a recalculated salary replace its previous amount.</p>
+ */
+public final class SalaryQuantileSketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT_VERSION = 1;
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public void add(double amount) {
+        if (amount <= 0) {
+            zeroCount++;
+        } else {
+            buckets.merge(index(amount), 1L, Long::sum);
+        }
+        count++;
+    }
+
+    /**
+     * Removes an amount added before; removing an amount that was never added has no effect.
+     */
+    public void remove(double amount) {
+        if (amount <= 0) {
+            if (zeroCount > 0) {
+                zeroCount--;
+                count--;
+            }
+            return;
+        }
+        int index = index(amount);
+        Long bucketCount = buckets.get(index);
+        if (bucketCount == null) {
+            return;
+        }
+        if (bucketCount == 1) {
+            buckets.remove(index);
+        } else {
+            buckets.put(index, bucketCount - 1);
+        }
+        count--;
+    }
+
+    /**
+     * Adds every amount of {@code other} to this sketch.
+     */
+    public SalaryQuantileSketch merge(SalaryQuantileSketch other) {
+        other.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the amount at quantile {@code q}, {@code 0} for an empty sketch.
+     *
+     * @param q quantile between 0 and 1, e.g. 0.5 for the median
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        double rank = q * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(buckets.lastKey());
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(13 + buckets.size() * 12);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(zeroCount);
+            out.writeInt(buckets.size());
+            for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+                out.writeInt(bucket.getKey());
+                out.writeLong(bucket.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a sketch written by {@link #toBytes()}, {@code null} or empty bytes give an empty sketch.
+     */
+    public static SalaryQuantileSketch fromBytes(byte[] bytes) {
+        SalaryQuantileSketch sketch = new SalaryQuantileSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported salary sketch version " + version);
+            }
+            sketch.zeroCount = in.readLong();
+            sketch.count = sketch.zeroCount;
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int index = in.readInt();
+                long bucketCount = in.readLong();
+                sketch.buckets.put(index, bucketCount);
+                sketch.count += bucketCount;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sketch;
+    }
+
+    private static int index(double amount) {
+        return (int) Math.ceil(Math.log(amount) / LOG_GAMMA);
+    }
+
+    /**
+     * Amount of a bucket, within the relative accuracy of every amount counted in it.
+     */
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,217 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceSummaryRequest;
+import com.ms.sw.attendance.service.AttendanceService;
+import com.ms.sw.employee.dto.PayrollInput;
+import com.ms.sw.employee.dto.SalaryRecordDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.employee.dto.SalarySlipJobDto;
+import com.ms.sw.employee.model.Employees;
+import com.ms.sw.employee.model.Salary;
+import com.ms.sw.employee.model.SalaryBreakdown;
+import com.ms.sw.employee.model.SalaryRetroDifference;
+import com.ms.sw.employee.repo.PayrollYearTotalsRepository;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.employee.repo.SalaryRetroDifferenceRepository;
+import com.ms.sw.exception.employee.EmployeeNotFoundException;
+import com.ms.sw.user.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Short database transactions around the payroll calculation of {@link SalaryService}.
+ *
+ * <p>Input and the existing salary record are read in read-only transactions, the calculation runs
+ * without holding a connection, and the salary record, its slip job and the closing of the month's
+ * attendance are written together in one short transaction. The slip PDF is rendered after commit.</p>
+ *
+ * <p>The calculated breakdown is stored with the salary record, and the year-to-date totals of the
+ * employee and the {@link SalaryRollupService} rollups are moved by the difference to the breakdown
+ * it replaces in the same transaction. The employee row is locked before the record is read, so
+ * concurrent saves for the same employee replace the breakdown one after the other and each moves
+ * the totals from the breakdown the previous one committed.</p>
+ */
+@Service
+@Slf4j
+public class SalaryRecordService {
+
+    private final PayrollInputLoader payrollInputLoader;
+    private final SalaryRepository salaryRepository;
+    private final EmployeesService employeesService;
+    private final AttendanceService attendanceService;
+    private final SalarySlipJobService salarySlipJobService;
+    private final SalaryRetroDifferenceRepository salaryRetroDifferenceRepository;
+    private final PayrollYearTotalsRepository payrollYearTotalsRepository;
+    private final SalaryRollupService salaryRollupService;
+    private final SalaryTrendService salaryTrendService;
+
+    public SalaryRecordService(PayrollInputLoader payrollInputLoader,
+                               SalaryRepository salaryRepository,
+                               EmployeesService employeesService,
+                               AttendanceService attendanceService,
+                               SalarySlipJobService salarySlipJobService,
+                               SalaryRetroDifferenceRepository salaryRetroDifferenceRepository,
+                               PayrollYearTotalsRepository payrollYearTotalsRepository,
+                               SalaryRollupService salaryRollupService,
+                               SalaryTrendService salaryTrendService) {
+        this.payrollInputLoader = payrollInputLoader;
+        this.salaryRepository = salaryRepository;
+        this.employeesService = employeesService;
+        this.attendanceService = attendanceService;
+        this.salarySlipJobService = salarySlipJobService;
+        this.salaryRetroDifferenceRepository = salaryRetroDifferenceRepository;
+        this.payrollYearTotalsRepository = payrollYearTotalsRepository;
+        this.salaryRollupService = salaryRollupService;
+        this.salaryTrendService = salaryTrendService;
+    }
+
+    /**
+     * Salary record of an employee for a month as found before calculating it.
+     *
+     * @param salaryId    id of the existing record, {@code null} if the month was never calculated
+     * @param fingerprint input fingerprint of the existing record
+     * @param latestJob   latest slip job of the existing record
+     */
+    record ExistingSalary(Long salaryId, String fingerprint, Optional<SalarySlipJobDto> latestJob) {
+
+        static final ExistingSalary NONE = new ExistingSalary(null, null, Optional.empty());
+    }
+
+    /**
+     * Loads the payroll input of a single employee with one connection.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PayrollInput> loadInput(String username, String personalId, int year, int month) {
+        return Optional.ofNullable(payrollInputLoader.load(username, List.of(personalId), year, month).get(personalId));
+    }
+
+    /**
+     * Finds the salary record of the month and its latest slip job.
+     */
+    @Transactional(readOnly = true)
+    public ExistingSalary findExisting(long employeeId, int year, int month) {
+        return salaryRepository.findPayrollRecords(employeeId, year, month)
+                .stream()
+                .findFirst()
+                .map(salary -> new ExistingSalary(
+                        salary.getId(),
+                        salary.getInputFingerprint(),
+                        salarySlipJobService.getLatestJob(salary.getId())))
+                .orElse(ExistingSalary.NONE);
+    }
+
+    /**
+     * Saves the calculated salary over the existing record of the month, or as a new record,
+     * queues its slip PDF and closes the month's attendance of the employee. The record is read again
+     * under the employee lock, the one found before calculating may have been replaced since.
+     *
+     * @return the queued slip job, its PDF is rendered once this transaction commits
+     */
+    @Transactional
+    public SalarySlipJobDto save(User user, PayrollInput input, SalarySlipData pdfData,
+                                 String fingerprint, boolean notify) {
+
+        Employees employee = employeesService.lockEmployee(input.employeeId());
+        Salary salary = salaryRepository.findPayrollRecords(input.employeeId(), pdfData.year(), pdfData.month())
+                .stream()
+                .findFirst()
+                .orElseGet(Salary::new);
+
+        salary.setEmployee(employee);
+        salary.setSalaryMonth(pdfData.month());
+        salary.setSalaryYear(pdfData.year());
+        salary.setPaymentDate(LocalDate.now());
+        salary.setInputFingerprint(fingerprint);
+        replaceBreakdown(user, input.employeeId(), salary, pdfData);
+
+        attendanceService.updateAttendanceToClosed(user, new AttendanceSummaryRequest(
+                input.employee().personalId(),
+                String.valueOf(pdfData.year()),
+                String.valueOf(pdfData.month()),
+                input.employee().department(),
+                input.employee().employeeName()
+        ));
+
+        return salarySlipJobService.enqueue(user, salary, pdfData, notify);
+    }
+
+    /**
+     * Saves a retroactively recalculated salary over its record, records the net difference and
+     * queues the slip PDF again. The payment date and the month's attendance are left as they are.
+     *
+     * @return the queued slip job, its PDF is rendered once this transaction commits
+     */
+    @Transactional
+    public SalarySlipJobDto saveRetro(User user, String retroId, SalaryRecordDto record,
+                                      SalarySlipData pdfData, String fingerprint) {
+
+        employeesService.lockEmployee(record.employeeId());
+        Salary salary = salaryRepository.findById(record.salaryId())
+                .orElseThrow(() -> new EmployeeNotFoundException("Salary record not found"));
+
+        SalaryRetroDifference difference = new SalaryRetroDifference();
+        difference.setRetroId(retroId);
+        difference.setSalary(salary);
+        difference.setPreviousNet(salary.getSalaryAmount());
+        difference.setRecalculatedNet(pdfData.netSalary());
+        difference.setDifference(pdfData.netSalary() - salary.getSalaryAmount());
+        salaryRetroDifferenceRepository.save(difference);
+
+        salary.setInputFingerprint(fingerprint);
+        replaceBreakdown(user, record.employeeId(), salary, pdfData);
+
+        return salarySlipJobService.enqueue(user, salary, pdfData, false);
+    }
+
+    /**
+     * Saves the salary with its new net amount and breakdown, and moves the year-to-date totals and the
+     * salary rollups from the breakdown it replaces. A salary without a stored breakdown is not part of
+     * either yet, it adds a month to the totals.
+     */
+    private void replaceBreakdown(User user, long employeeId, Salary salary, SalarySlipData pdfData) {
+
+        SalaryBreakdown previous = salary.getBreakdown();
+        boolean counted = previous != null && previous.getGrossSalary() != null;
+        double previousNet = counted ? salary.getSalaryAmount() : 0;
+
+        salary.setSalaryAmount(pdfData.netSalary());
+        salary.setBreakdown(SalaryBreakdown.of(pdfData));
+        salaryRepository.save(salary);
+
+        payrollYearTotalsRepository.addToYearTotals(
+                employeeId,
+                pdfData.year(),
+                counted ? 0 : 1,
+                pdfData.grossSalary() - previous(previous, SalaryBreakdown::getGrossSalary),
+                pdfData.incomeTax() - previous(previous, SalaryBreakdown::getIncomeTax),
+                pdfData.nationalInsurance() - previous(previous, SalaryBreakdown::getNationalInsurance),
+                pdfData.employeePension() - previous(previous, SalaryBreakdown::getEmployeePension),
+                pdfData.netSalary() - previousNet,
+                pdfData.employerPension() - previous(previous, SalaryBreakdown::getEmployerPension),
+                pdfData.employerSeverance() - previous(previous, SalaryBreakdown::getEmployerSeverance),
+                pdfData.employerNI() - previous(previous, SalaryBreakdown::getEmployerNi),
+                pdfData.totalEmployerCost() - previous(previous, SalaryBreakdown::getTotalEmployerCost),
+                LocalDateTime.now()
+        );
+
+        salaryRollupService.record(user, pdfData.year(), pdfData.month(),
+                counted ? previous.getDepartment() : null,
+                counted ? previousNet : null,
+                pdfData.department(), pdfData.netSalary());
+        salaryTrendService.evictAfterCommit(user.getUsername(), pdfData.year(), pdfData.month());
+    }
+
+    private static double previous(SalaryBreakdown breakdown, Function<SalaryBreakdown, Double> amount) {
+        if (breakdown == null) {
+            return 0;
+        }
+        Double value = amount.apply(breakdown);
+        return value != null ? value : 0;
+    }
+}
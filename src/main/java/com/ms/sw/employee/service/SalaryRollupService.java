@@ -0,0 +1,148 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalaryDistributionDto;
+import com.ms.sw.employee.dto.SalaryRangeDto;
+import com.ms.sw.employee.model.SalaryRollup;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.employee.repo.SalaryRollupRepository;
+import com.ms.sw.user.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service responsible for the net salary rollups of every user, month and department.
+ *
+ * <p>A rollup holds the count, sum, min and max of the net salaries and a {@link SalaryQuantileSketch}
+ * of them. It is updated by {@link SalaryRecordService} in the transaction saving the salary, with the
+ * rollup row locked, so dashboards read one row per month and department instead of the salaries.
+ * Rollups of several months or departments are merged on read.</p>
+ */
+@Service
+@Slf4j
+public class SalaryRollupService {
+
+    private static final byte[] EMPTY_SKETCH = new SalaryQuantileSketch().toBytes();
+
+    private final SalaryRollupRepository salaryRollupRepository;
+    private final SalaryRepository salaryRepository;
+
+    public SalaryRollupService(SalaryRollupRepository salaryRollupRepository, SalaryRepository salaryRepository) {
+        this.salaryRollupRepository = salaryRollupRepository;
+        this.salaryRepository = salaryRepository;
+    }
+
+    /**
+     * Moves a saved salary within the rollups of its month: its previous net amount is removed from the
+     * rollup of its previous department and the new amount is added to the rollup of its department.
+     * Must be called in the transaction that saved the salary.
+     *
+     * @param previousDepartment department the previous amount was counted in
+     * @param previousNet        previous net amount, {@code null} if the salary was not counted yet
+     */
+    public void record(User user, int year, int month,
+                       String previousDepartment, Double previousNet,
+                       String department, double net) {
+
+        String key = departmentKey(department);
+        if (previousNet != null && !departmentKey(previousDepartment).equals(key)) {
+            apply(user, year, month, departmentKey(previousDepartment), previousNet, null);
+            apply(user, year, month, key, null, net);
+        } else {
+            apply(user, year, month, key, previousNet, net);
+        }
+    }
+
+    /**
+     * Merges the rollups of the user from {@code fromPeriod} to {@code toPeriod}, where a period is
+     * {@code year * 100 + month}, of one department or of all when {@code department} is {@code null}.
+     */
+    public SalaryDistributionDto getDistribution(String username, int fromPeriod, int toPeriod, String department) {
+
+        List<SalaryRollup> rollups = salaryRollupRepository.findRollups(username, fromPeriod, toPeriod, department);
+
+        SalaryQuantileSketch sketch = new SalaryQuantileSketch();
+        long count = 0;
+        long totalAgorot = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (SalaryRollup rollup : rollups) {
+            sketch.merge(SalaryQuantileSketch.fromBytes(rollup.getSketch()));
+            count += rollup.getSalaryCount();
+            totalAgorot += rollup.getTotalAgorot();
+            min = Math.min(min, rollup.getMinSalary());
+            max = Math.max(max, rollup.getMaxSalary());
+        }
+
+        if (count == 0) {
+            return new SalaryDistributionDto(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new SalaryDistributionDto(
+                count,
+                totalAgorot / 100.0,
+                totalAgorot / 100.0 / count,
+                min,
+                max,
+                sketch.quantile(0.5),
+                sketch.quantile(0.9),
+                sketch.quantile(0.99)
+        );
+    }
+
+    private void apply(User user, int year, int month, String department, Double removed, Double added) {
+
+        salaryRollupRepository.insertIfAbsent(user.getId(), year, month, department, EMPTY_SKETCH);
+        SalaryRollup rollup = salaryRollupRepository.findForUpdate(user.getId(), year, month, department)
+                .orElseThrow(() -> new IllegalStateException("Salary rollup not found"));
+
+        SalaryQuantileSketch sketch = SalaryQuantileSketch.fromBytes(rollup.getSketch());
+        long count = rollup.getSalaryCount();
+        long totalAgorot = rollup.getTotalAgorot();
+        double min = rollup.getMinSalary();
+        double max = rollup.getMaxSalary();
+        boolean rangeStale = false;
+
+        if (removed != null) {
+            sketch.remove(removed);
+            count--;
+            totalAgorot -= agorot(removed);
+            // the next lowest or highest salary is not known to the rollup
+            rangeStale = removed <= min || removed >= max;
+        }
+        if (added != null) {
+            min = count == 0 ? added : Math.min(min, added);
+            max = count == 0 ? added : Math.max(max, added);
+            sketch.add(added);
+            count++;
+            totalAgorot += agorot(added);
+        }
+
+        if (count <= 0) {
+            count = 0;
+            totalAgorot = 0;
+            min = 0;
+            max = 0;
+        } else if (rangeStale) {
+            SalaryRangeDto range = salaryRepository.findSalaryRange(user.getId(), year, month, department);
+            min = range.minSalary() != null ? range.minSalary() : 0;
+            max = range.maxSalary() != null ? range.maxSalary() : 0;
+        }
+
+        rollup.setSalaryCount(count);
+        rollup.setTotalAgorot(totalAgorot);
+        rollup.setMinSalary(min);
+        rollup.setMaxSalary(max);
+        rollup.setSketch(sketch.toBytes());
+        rollup.setUpdatedAt(LocalDateTime.now());
+        salaryRollupRepository.save(rollup);
+    }
+
+    private static String departmentKey(String department) {
+        return department != null ? department : "";
+    }
+
+    private static long agorot(double amount) {
+        return Math.round(amount * 100);
+    }
+}
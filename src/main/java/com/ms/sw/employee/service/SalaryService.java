@@ -1,28 +1,16 @@
 package com.ms.sw.employee.service;
 
-import com.ms.sw.attendance.dto.AttendancePayrollDto;
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
 import com.ms.sw.attendance.dto.AttendanceSummaryRequest;
-import com.ms.sw.attendance.service.AttendanceService;
 import com.ms.sw.employee.dto.*;
-import com.ms.sw.employee.model.Employees;
-import com.ms.sw.employee.model.Salary;
-import com.ms.sw.employee.repo.SalaryDetailsRepository;
-import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.employee.model.SalarySlipJobStatus;
 import com.ms.sw.exception.employee.EmployeeNotFoundException;
-import com.ms.sw.notifications.service.NotificationService;
 import com.ms.sw.user.model.ActionType;
 import com.ms.sw.user.model.User;
 import com.ms.sw.user.service.ActivityLogsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
-import java.util.List;
-import java.util.concurrent.*;
-
-import static com.ms.sw.employee.service.PayrollConstants.*;
 
 /**
  * Service responsible for calculating employee salaries.
@@ -34,326 +22,124 @@ import static com.ms.sw.employee.service.PayrollConstants.*;
 @RequiredArgsConstructor
 public class SalaryService {
 
-    private final EmployeesService employeesService;
-    private final AttendanceService attendanceService;
-    private final SalaryDetailsRepository salaryDetailsRepository;
-    private final SalaryRepository salaryRepository;
-    private final PdfGeneratorService pdfGenerator;
+    private final SalaryRecordService salaryRecordService;
     private final ActivityLogsService activityLogsService;
-    private final NotificationService notificationService;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollTaxTables taxTables;
 
     /**
      * Fetches salary data and calculates payroll.
+     * The salary slip PDF is rendered in the background and the user is notified when it is ready.
+     *
+     * @return the slip rendering job
      */
-    public void fetchSalaryData(User user, AttendanceSummaryRequest request) {
-
-        // changed from CompletableFuture to StructuredTaskScope
-        try(var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAllSuccessfulOrThrow())){
-
-            var employeeData = scope.fork(()->employeesService.getEmployeePayrollByPersonalId(user.getUsername(),request.personalId()));
-            var attendanceData = scope.fork(()-> attendanceService.getAttendancePayrollByPersonalId(user.getUsername(), request));
-            var salaryData = scope.fork(()-> salaryDetailsRepository.findSalaryDetailsOfEmployee(user.getUsername(),request.personalId()));
-
-            scope.join();
-
-            var emp = employeeData.get();
-            var atd = attendanceData.get();
-            var sal = salaryData.get();
-
-            validateFetchedData(emp,atd,sal);
-            calculateSalary(user, emp, atd, sal);
-
-            activityLogsService.logAction(ActionType.SENT_TO_PAYROLL,"לעובד "+request.employeeName(),user.getUsername());
-        }catch (StructuredTaskScope.FailedException | InterruptedException e){
-            log.debug("Error while trying to fetch data from db");
-            log.error("{}",e.getMessage());
-        }
-    }
-
-    /**
-     * Main salary calculation.
-     */
-    public void calculateSalary(User user, EmployeePayrollDto employee,
-                                List<AttendancePayrollDto> attendance,
-                                SalaryDetailsDto salaryDetails) {
-
-        OvertimeResult overtimeHours = calculateOvertimeHours(attendance);
-        long travelDays = calculateTravelDays(attendance);
-
-        GrossSalaryResult grossSalary = calculateGrossSalary(
-                overtimeHours,
-                travelDays,
-                salaryDetails.salaryPerHour()
-        );
-
-        DeductionsResult deductions = calculateDeductions(
-                grossSalary.total(),
-                salaryDetails.creditPoints()
-        );
-
-        double netSalary = grossSalary.total() - deductions.total();
-        double employerCost = calculateEmployerCost(grossSalary.total(), deductions);
-
-        SalarySlipData pdfData = buildSalarySlipData(
-                user, employee, attendance, salaryDetails,
-                overtimeHours, travelDays, grossSalary, deductions, netSalary, employerCost
-        );
+    public SalarySlipJobDto fetchSalaryData(User user, AttendanceSummaryRequest request) {
 
-        String pdfPath = pdfGenerator.generateSalaryPdf(pdfData);
-        saveSalaryRecord(user.getUsername(), employee.personalId(), pdfData, netSalary, pdfPath);
-        notificationService.createNotaficationPayroll(user, employee.employeeName());
+        SalarySlipJobDto job = runPayroll(user, request);
 
-        log.info("Salary generated for {} ({})", employee.employeeName(), employee.personalId());
-    }
-
-    private void validateFetchedData(EmployeePayrollDto employee,
-                                     List<AttendancePayrollDto> attendance,
-                                     SalaryDetailsDto salaryDetails) {
-        if (employee == null) {
-            throw new EmployeeNotFoundException("Employee not found");
-        }
-        if (attendance == null || attendance.isEmpty()) {
-            throw new IllegalStateException("Attendance not found");
-        }
-        if (salaryDetails == null) {
-            throw new IllegalStateException("Salary details not found");
-        }
-        if (!employee.personalId().equals(attendance.getFirst().personalId())) {
-            throw new EmployeeNotFoundException("Mismatch between Employee and Attendance data");
-        }
+        activityLogsService.logAction(ActionType.SENT_TO_PAYROLL,"לעובד "+request.employeeName(),user.getUsername());
+        return job;
     }
 
     /**
-     * GROSS SALARY CALCULATION
+     * Fetches salary data and calculates payroll for a single employee.
+     *
+     * <p>Unlike {@link #fetchSalaryData(User, AttendanceSummaryRequest)} no activity is logged.</p>
+     *
+     * @return the slip rendering job
      */
-    private record GrossSalaryResult(
-            double regularPay,
-            double overtime125Pay,
-            double overtime150Pay,
-            double travelAllowance,
-            double total
-    ) {}
-
-    private GrossSalaryResult calculateGrossSalary(OvertimeResult hours,
-                                                   long travelDays,
-                                                   double hourlyRate) {
-        double regularPay = hours.regularHours() * hourlyRate;
-        double overtime125Pay = hours.hours125() * hourlyRate * RATE_125;
-        double overtime150Pay = hours.hours150() * hourlyRate * RATE_150;
-        double travelAllowance = travelDays * DAILY_TRAVEL_RATE;
+    public SalarySlipJobDto runPayroll(User user, AttendanceSummaryRequest request) {
 
-        double total = roundToAgorot(regularPay + overtime125Pay + overtime150Pay + travelAllowance);
+        PayrollInput input = salaryRecordService
+                .loadInput(user.getUsername(), request.personalId(),
+                        Integer.parseInt(request.year()), Integer.parseInt(request.month()))
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee not found"));
 
-        return new GrossSalaryResult(
-                regularPay, overtime125Pay, overtime150Pay, travelAllowance, total
-        );
-    }
-
-    private long calculateTravelDays(List<AttendancePayrollDto> attendance) {
-        return attendance.stream()
-                .filter(AttendancePayrollDto::travelAllow)
-                .count();
+        validateFetchedData(input.employee(), input.attendance(), input.salaryDetails());
+        return calculateIfChanged(user, input, true);
     }
 
     /**
-     * DEDUCTIONS CALCULATION
+     * Salary calculation from input rows loaded by {@link PayrollInputLoader}.
+     *
+     * <p>The salary record is linked to the employee by id, so the employee entity is not fetched again.
+     * The PDF is queued without a per-slip notification, the run reports a single summary instead.</p>
      */
-    private record DeductionsResult(
-            double employeePension,
-            double nationalInsurance,
-            double incomeTax,
-            double total,
-            SocialContributionsResult socialContributions,
-            NationalInsuranceResult niResult,
-            IncomeTaxResult taxResult
-    ) {}
-
-    private DeductionsResult calculateDeductions(double grossSalary, double creditPoints) {
-        SocialContributionsResult social = calculatePensionContributions(grossSalary);
-        NationalInsuranceResult ni = calculateNationalInsurance(grossSalary);
+    public SalarySlipJobDto calculateSalary(User user, PayrollInput input) {
 
-        double taxableIncome = grossSalary - social.employeePension();
-        IncomeTaxResult tax = calculateIncomeTax(taxableIncome, creditPoints);
-
-        double total = social.employeePension() + ni.employeeDeduction() + tax.netTax();
-
-        return new DeductionsResult(
-                social.employeePension(),
-                ni.employeeDeduction(),
-                tax.netTax(),
-                total,
-                social,
-                ni,
-                tax
-        );
-    }
-
-    private double calculateEmployerCost(double grossSalary, DeductionsResult deductions) {
-        return grossSalary +
-                deductions.socialContributions().totalEmployerSocials() +
-                deductions.niResult().employerContribution();
+        validateFetchedData(input.employee(), input.attendance(), input.salaryDetails());
+        return calculateIfChanged(user, input, false);
     }
 
     /**
-     * OVERTIME CALCULATION.
+     * Calculates, saves and queues the salary slip unless the employee already has one for the month
+     * calculated from the same input.
+     *
+     * <p>An unchanged slip is returned with its latest job as long as that job did not fail. Otherwise
+     * the existing salary record of the month is updated in place, so repeated runs never add rows.
+     * No connection is held while calculating, see {@link SalaryRecordService}.</p>
      */
-    public record OvertimeResult(double regularHours, double hours125, double hours150) {}
-
-    private OvertimeResult calculateOvertimeHours(List<AttendancePayrollDto> attendance) {
-        double regularHours = 0;
-        double hours125 = 0;
-        double hours150 = 0;
-
-        for (AttendancePayrollDto day : attendance) {
-            double dailyHours = day.totalHours();
-
-            if (dailyHours <= REGULAR_DAILY_HOURS_LIMIT) {
-                regularHours += dailyHours;
-            } else {
-                regularHours += REGULAR_DAILY_HOURS_LIMIT;
-                double extra = dailyHours - REGULAR_DAILY_HOURS_LIMIT;
-
-                if (extra <= OVERTIME_125_LIMIT) {
-                    hours125 += extra;
-                } else {
-                    hours125 += OVERTIME_125_LIMIT;
-                    hours150 += (extra - OVERTIME_125_LIMIT);
-                }
+    private SalarySlipJobDto calculateIfChanged(User user, PayrollInput input, boolean notify) {
+
+        EmployeePayrollDto employee = input.employee();
+        AttendanceMonthSummaryDto attendance = input.attendance();
+        String fingerprint = PayrollFingerprint.of(user, employee, attendance, input.salaryDetails(),
+                taxTables.forPeriod(attendance.year(), attendance.month()).effectiveFrom());
+
+        SalaryRecordService.ExistingSalary existing =
+                salaryRecordService.findExisting(input.employeeId(), attendance.year(), attendance.month());
+
+        if (fingerprint.equals(existing.fingerprint())) {
+            var existingJob = existing.latestJob()
+                    .filter(job -> job.status() != SalarySlipJobStatus.FAILED);
+            if (existingJob.isPresent()) {
+                log.info("Salary of {} ({}) unchanged, reusing slip job {}",
+                        employee.employeeName(), employee.personalId(), existingJob.get().jobId());
+                return existingJob.get();
             }
         }
-        return new OvertimeResult(regularHours, hours125, hours150);
-    }
-
-    /**
-     * PENSION & SEVERANCE
-     */
-    public record SocialContributionsResult(
-            double employeePension,
-            double employerPension,
-            double employerSeverance,
-            double totalEmployerSocials
-    ) {}
-
-    private SocialContributionsResult calculatePensionContributions(double pensionableSalary) {
-        double employeePension = pensionableSalary * PENSION_EMPLOYEE_RATE;
-        double employerPension = pensionableSalary * PENSION_EMPLOYER_RATE;
-        double employerSeverance = pensionableSalary * SEVERANCE_EMPLOYER_RATE;
-        double totalEmployerSocials = employerPension + employerSeverance;
-
-        return new SocialContributionsResult(
-                employeePension, employerPension, employerSeverance, totalEmployerSocials
-        );
-    }
-
-    /**
-     * NATIONAL INSURANCE
-     */
-    public record NationalInsuranceResult(double employeeDeduction, double employerContribution) {}
-
-    private NationalInsuranceResult calculateNationalInsurance(double grossSalary) {
-        double employeeDeduction = calculateEmployeeNI(grossSalary);
-        double employerContribution = calculateEmployerNI(grossSalary);
-        return new NationalInsuranceResult(employeeDeduction, employerContribution);
-    }
-
-    private double calculateEmployeeNI(double gross) {
-        if (gross <= NI_INCOME_THRESHOLD) {
-            return gross * NI_EMPLOYEE_REDUCED_RATE;
-        }
-        double firstBracket = NI_INCOME_THRESHOLD * NI_EMPLOYEE_REDUCED_RATE;
-        double secondBracket = (gross - NI_INCOME_THRESHOLD) * NI_EMPLOYEE_FULL_RATE;
-        return firstBracket + secondBracket;
-    }
 
-    private double calculateEmployerNI(double gross) {
-        if (gross <= NI_INCOME_THRESHOLD) {
-            return gross * NI_EMPLOYER_REDUCED_RATE;
-        }
-        double firstBracket = NI_INCOME_THRESHOLD * NI_EMPLOYER_REDUCED_RATE;
-        double secondBracket = (gross - NI_INCOME_THRESHOLD) * NI_EMPLOYER_FULL_RATE;
-        return firstBracket + secondBracket;
-    }
+        SalarySlipData pdfData = payrollCalculator.calculate(user, employee, attendance, input.salaryDetails());
+        SalarySlipJobDto job = salaryRecordService.save(user, input, pdfData, fingerprint, notify);
 
-    /**
-     * INCOME TAX
-     */
-    public record IncomeTaxResult(double grossTax, double creditPointsValue, double netTax) {}
-
-    private IncomeTaxResult calculateIncomeTax(double taxableSalary, double creditPoints) {
-        double grossTax = calculateTaxBrackets(taxableSalary);
-        double totalCreditDiscount = creditPoints * CREDIT_POINT_VALUE;
-        double netTax = Math.max(0, grossTax - totalCreditDiscount);
-
-        return new IncomeTaxResult(grossTax, totalCreditDiscount, netTax);
-    }
-
-    private double calculateTaxBrackets(double income) {
-        double tax = 0;
-
-        if (income > 0) tax += Math.min(income, TAX_BRACKET_1_LIMIT) * TAX_BRACKET_1_RATE;
-        if (income > TAX_BRACKET_1_LIMIT) tax += (Math.min(income, TAX_BRACKET_2_LIMIT) - TAX_BRACKET_1_LIMIT) * TAX_BRACKET_2_RATE;
-        if (income > TAX_BRACKET_2_LIMIT) tax += (Math.min(income, TAX_BRACKET_3_LIMIT) - TAX_BRACKET_2_LIMIT) * TAX_BRACKET_3_RATE;
-        if (income > TAX_BRACKET_3_LIMIT) tax += (Math.min(income, TAX_BRACKET_4_LIMIT) - TAX_BRACKET_3_LIMIT) * TAX_BRACKET_4_RATE;
-        if (income > TAX_BRACKET_4_LIMIT) tax += (Math.min(income, TAX_BRACKET_5_LIMIT) - TAX_BRACKET_4_LIMIT) * TAX_BRACKET_5_RATE;
-        if (income > TAX_BRACKET_5_LIMIT) tax += (Math.min(income, TAX_BRACKET_6_LIMIT) - TAX_BRACKET_5_LIMIT) * TAX_BRACKET_6_RATE;
-        if (income > TAX_BRACKET_6_LIMIT) tax += (income - TAX_BRACKET_6_LIMIT) * TAX_BRACKET_7_RATE;
-
-        return tax;
+        log.info("Salary generated for {} ({})", employee.employeeName(), employee.personalId());
+        return job;
     }
 
     /**
-     * DATA BUILDING
+     * Calculates the salary slip breakdown of an employee without saving it.
+     *
+     * <p>No PDF is rendered, no salary record is written and no notification is sent, so the
+     * preview can be recalculated freely while the salary details are being edited.</p>
+     *
+     * @return the calculated breakdown
      */
-    private SalarySlipData buildSalarySlipData(
-            User user, EmployeePayrollDto employee, List<AttendancePayrollDto> attendance,
-            SalaryDetailsDto salaryDetails, OvertimeResult hours, long travelDays,
-            GrossSalaryResult gross, DeductionsResult deductions,
-            double netSalary, double employerCost) {
-
-        LocalDate firstAttendanceDate = attendance.getFirst().date();
-        double taxableIncome = gross.total() - deductions.employeePension();
+    public SalarySlipData previewSalary(User user, PayrollPreviewRequest request) {
 
-        return new SalarySlipData(
-                user.getCompanyName(), user.getCompanyId(), user.getCompanyAddress(),
-                firstAttendanceDate.getYear(), firstAttendanceDate.getMonthValue(),
-                employee.employeeName(), employee.personalId(), employee.department(),
-                LocalDate.now(),
-                salaryDetails.pensionFund(),salaryDetails.providentFund(),salaryDetails.insuranceCompany(),
-                hours.regularHours(), hours.hours125(), hours.hours150(), travelDays,
-                salaryDetails.salaryPerHour(),
-                gross.regularPay(), gross.overtime125Pay(), gross.overtime150Pay(),
-                gross.travelAllowance(), gross.total(),
-                deductions.employeePension(), deductions.nationalInsurance(),
-                taxableIncome, deductions.incomeTax(), deductions.total(), netSalary,
-                salaryDetails.creditPoints(),
-                deductions.socialContributions().employerPension(),
-                deductions.socialContributions().employerSeverance(),
-                deductions.niResult().employerContribution(),
-                employerCost
-        );
-    }
+        PayrollInput input = salaryRecordService
+                .loadInput(user.getUsername(), request.personalId(), request.year(), request.month())
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee not found"));
 
-    private void saveSalaryRecord(String username, String personalId,
-                                  SalarySlipData pdfData, double netSalary, String pdfPath) {
-        Employees employee = employeesService.getEmployeeEntityByPersonalId(personalId, username);
+        SalaryDetailsDto salaryDetails = request.salaryDetails() != null ? request.salaryDetails() : input.salaryDetails();
+        validateFetchedData(input.employee(), input.attendance(), salaryDetails);
 
-        Salary salary = new Salary();
-        salary.setEmployee(employee);
-        salary.setSalaryAmount(netSalary);
-        salary.setSalaryMonth(pdfData.month());
-        salary.setSalaryYear(pdfData.year());
-        salary.setPaymentDate(LocalDate.now());
-        salary.setPathOfTlush(pdfPath);
-
-        salaryRepository.save(salary);
+        return payrollCalculator.calculate(user, input.employee(), input.attendance(), salaryDetails);
     }
 
-    /**
-     * UTILITY
-     */
-    private double roundToAgorot(double amount) {
-        return BigDecimal.valueOf(amount)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+    private void validateFetchedData(EmployeePayrollDto employee,
+                                     AttendanceMonthSummaryDto attendance,
+                                     SalaryDetailsDto salaryDetails) {
+        if (employee == null) {
+            throw new EmployeeNotFoundException("Employee not found");
+        }
+        if (attendance == null || attendance.totalDays() == 0) {
+            throw new IllegalStateException("Attendance not found");
+        }
+        if (salaryDetails == null) {
+            throw new IllegalStateException("Salary details not found");
+        }
+        if (!employee.personalId().equals(attendance.personalId())) {
+            throw new EmployeeNotFoundException("Mismatch between Employee and Attendance data");
+        }
     }
-}
\ No newline at end of file
+}
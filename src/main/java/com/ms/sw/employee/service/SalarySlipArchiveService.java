@@ -0,0 +1,99 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import com.ms.sw.employee.repo.SalaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service responsible for exporting the salary slips of a month as a single ZIP archive.
+ *
+ * <p>Slip paths are taken from the salary records of the user, so only the user's own slips are
+ * exported even though all users share the {@link PdfGeneratorService} directory layout.
+ * The archive is written entry by entry straight to the output stream; nothing is buffered besides
+ * the copy buffer of the current file. Deferred slips of the month are rendered through
+ * {@link SalarySlipMaterializer} as the archive reaches them.</p>
+ */
+@Service
+@Slf4j
+public class SalarySlipArchiveService {
+
+    private final SalaryRepository salaryRepository;
+    private final SalarySlipMaterializer salarySlipMaterializer;
+
+    public SalarySlipArchiveService(SalaryRepository salaryRepository, SalarySlipMaterializer salarySlipMaterializer) {
+        this.salaryRepository = salaryRepository;
+        this.salarySlipMaterializer = salarySlipMaterializer;
+    }
+
+    /**
+     * Returns the slip files of every salary the user generated for the month.
+     */
+    public List<String> getSlipPaths(String username, int year, int month) {
+        return salaryRepository.findSlipPathsOfMonth(username, year, month);
+    }
+
+    /**
+     * Returns the slips of the month that were deferred and are not rendered yet.
+     */
+    public List<SalarySlipFileDto> getDeferredSlips(String username, int year, int month) {
+        return salaryRepository.findDeferredSlipsOfMonth(username, year, month);
+    }
+
+    /**
+     * Writes the slips to {@code out} as a ZIP archive, slips missing on disk are skipped.
+     *
+     * @return number of slips written
+     */
+    public int writeArchive(String username, List<String> slipPaths, List<SalarySlipFileDto> deferredSlips,
+                            OutputStream out) throws IOException {
+
+        int written = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            // PDFs are already compressed, deflating them again only costs CPU
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            for (String slipPath : slipPaths) {
+                Path file = Path.of(slipPath);
+                try {
+                    ZipEntry entry = new ZipEntry(file.getFileName().toString());
+                    entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+                    zip.putNextEntry(entry);
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                    written++;
+                } catch (NoSuchFileException e) {
+                    log.warn("Salary slip {} is missing, skipped from archive", slipPath);
+                }
+            }
+
+            for (SalarySlipFileDto slip : deferredSlips) {
+                Optional<SalarySlipMaterializer.SlipFile> file = salarySlipMaterializer.materialize(username, slip);
+                if (file.isEmpty()) {
+                    continue;
+                }
+                try (SalarySlipMaterializer.SlipFile slipFile = file.get()) {
+                    ZipEntry entry = new ZipEntry(slipFile.fileName());
+                    entry.setLastModifiedTime(Files.getLastModifiedTime(slipFile.path()));
+                    zip.putNextEntry(entry);
+                    Files.copy(slipFile.path(), zip);
+                    zip.closeEntry();
+                    written++;
+                } catch (NoSuchFileException e) {
+                    log.warn("Deferred salary slip {} is missing, skipped from archive", slip.salaryId());
+                }
+            }
+        }
+        return written;
+    }
+}
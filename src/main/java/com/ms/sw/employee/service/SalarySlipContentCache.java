@@ -0,0 +1,199 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * In-memory cache of served salary slip PDFs, keyed by salary id and bounded by total size.
+ *
+ * <p>Each entry holds the slip content with its owner and version, so a repeated view is answered,
+ * conditional requests included, without reading the salary record or the file. A slip is only
+ * returned to the user who owns it. The least recently served slips are dropped once the cache holds
+ * more than {@code salary.slip.cache.max-bytes}, and slips larger than a sixteenth of that are not
+ * cached at all.</p>
+ *
+ * <p>{@link SalarySlipJobService} invalidates a slip whenever it is rendered again or deferred. Every
+ * invalidation moves the cache generation on and is remembered for its salary id, and content of that
+ * slip read before it is not cached, so a slip loaded while it was being regenerated never outlives the
+ * regeneration while other slips keep being cached. The most recent invalidations are remembered;
+ * once older ones are forgotten, any slip read before them is not cached.</p>
+ *
+ * <p>Lookups are counted in {@code salary.slip.cache.gets} by {@code result} ({@code hit} or {@code miss}),
+ * with the hit ratio in {@code salary.slip.cache.hit.ratio}, the cache size in {@code salary.slip.cache.bytes}
+ * and {@code salary.slip.cache.entries}, and dropped slips in {@code salary.slip.cache.evictions}.</p>
+ */
+@Component
+public class SalarySlipContentCache {
+
+    private static final int MAX_INVALIDATIONS = 4096;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    /**
+     * Cached slips in access order, eldest first. Guarded by itself.
+     */
+    private final LinkedHashMap<Long, CachedSlip> slips = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Generation of the latest invalidation of each recently invalidated salary, eldest first. Guarded by {@link #slips}.
+     */
+    private final LinkedHashMap<Long, Long> invalidations = new LinkedHashMap<>();
+    private long generation;
+    private long forgottenGeneration;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public SalarySlipContentCache(MeterRegistry meterRegistry,
+                                  @Value("${salary.slip.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxEntryBytes = this.maxBytes / 16;
+
+        this.hits = Counter.builder("salary.slip.cache.gets")
+                .description("Salary slip views answered from memory")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("salary.slip.cache.gets")
+                .description("Salary slip views read from the database and disk")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("salary.slip.cache.evictions")
+                .description("Salary slips dropped from memory to stay within the size limit")
+                .register(meterRegistry);
+        Gauge.builder("salary.slip.cache.hit.ratio", this, SalarySlipContentCache::hitRatio)
+                .description("Share of salary slip views answered from memory")
+                .register(meterRegistry);
+        Gauge.builder("salary.slip.cache.bytes", this, SalarySlipContentCache::cachedBytes)
+                .description("Size of the cached salary slips")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("salary.slip.cache.entries", this, SalarySlipContentCache::entries)
+                .description("Number of cached salary slips")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Slip content with the owner and version it was cached for.
+     *
+     * @param fileName name the slip is served under
+     */
+    public record CachedSlip(String username, SalarySlipFileDto slip, String fileName, byte[] content) {}
+
+    /**
+     * Returns the cached slip if it is owned by the user.
+     */
+    public Optional<CachedSlip> get(String username, Long salaryId) {
+        CachedSlip cached;
+        synchronized (slips) {
+            cached = slips.get(salaryId);
+        }
+        if (cached == null || !cached.username().equals(username)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached);
+    }
+
+    /**
+     * Current generation, to be read before loading a slip that may be {@link #put} afterwards.
+     */
+    public long generation() {
+        synchronized (slips) {
+            return generation;
+        }
+    }
+
+    /**
+     * Whether a slip of {@code length} bytes would be cached.
+     */
+    public boolean fits(long length) {
+        return length <= maxEntryBytes;
+    }
+
+    /**
+     * Caches a slip loaded from its salary record, unless the slip was invalidated since {@code loadedAt}.
+     *
+     * @param loadedAt {@link #generation()} read before the salary record was loaded
+     */
+    public void put(long loadedAt, String username, SalarySlipFileDto slip, String fileName, byte[] content) {
+        if (!fits(content.length)) {
+            return;
+        }
+        CachedSlip cached = new CachedSlip(username, slip, fileName, content);
+        synchronized (slips) {
+            Long invalidatedAt = invalidations.get(slip.salaryId());
+            if (loadedAt < forgottenGeneration || invalidatedAt != null && invalidatedAt > loadedAt) {
+                return;
+            }
+            CachedSlip replaced = slips.put(slip.salaryId(), cached);
+            cachedBytes += content.length - (replaced != null ? replaced.content().length : 0);
+
+            while (cachedBytes > maxBytes && !slips.isEmpty()) {
+                CachedSlip eldest = slips.pollFirstEntry().getValue();
+                cachedBytes -= eldest.content().length;
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops the slip of a salary record, called whenever its slip changes.
+     */
+    public void invalidate(Long salaryId) {
+        synchronized (slips) {
+            invalidations.remove(salaryId);
+            invalidations.put(salaryId, ++generation);
+            if (invalidations.size() > MAX_INVALIDATIONS) {
+                forgottenGeneration = invalidations.pollFirstEntry().getValue();
+            }
+            CachedSlip removed = slips.remove(salaryId);
+            if (removed != null) {
+                cachedBytes -= removed.content().length;
+            }
+        }
+    }
+
+    /**
+     * Drops the slip of a salary record once the current transaction commits, or right away outside a transaction.
+     */
+    public void invalidateAfterCommit(Long salaryId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(salaryId);
+                }
+            });
+        } else {
+            invalidate(salaryId);
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0;
+    }
+
+    private double cachedBytes() {
+        synchronized (slips) {
+            return cachedBytes;
+        }
+    }
+
+    private double entries() {
+        synchronized (slips) {
+            return slips.size();
+        }
+    }
+}
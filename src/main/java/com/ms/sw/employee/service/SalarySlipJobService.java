@@ -0,0 +1,337 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.employee.dto.SalarySlipJobDto;
+import com.ms.sw.employee.model.Salary;
+import com.ms.sw.employee.model.SalarySlipJob;
+import com.ms.sw.employee.model.SalarySlipJobStatus;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.employee.repo.SalarySlipJobRepository;
+import com.ms.sw.notifications.service.NotificationService;
+import com.ms.sw.user.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service responsible for rendering salary slip PDFs in the background.
+ *
+ * <p>Every slip gets a persisted {@link SalarySlipJob} and is rendered by a fixed pool of
+ * {@code salary.pdf.workers} threads (defaults to the number of processors) fed by a queue of at
+ * most {@code salary.pdf.queue-capacity} slips. Slips are never rendered on the submitting thread,
+ * which runs in the after-commit callback of the transaction that saved the salary. When the queue
+ * is full the job stays QUEUED in the database, and every {@code salary.pdf.sweep-interval-ms} the
+ * queued jobs that fit in the queue are rendered from the breakdown stored with their salary.
+ * A worker claims a job by moving it from QUEUED to RUNNING, so a job is rendered once even if it is
+ * submitted both after commit and by the sweeper. A job whose salary already has a newer job is
+ * SUPERSEDED instead, and every slip is rendered from the breakdown stored with its salary when the job
+ * is claimed, one job per salary at a time. Job and slip updates run in their own transaction.
+ * On completion {@link Salary#getPathOfTlush()} is filled in and, if requested, the user is notified;
+ * a failed notification does not fail the job.</p>
+ *
+ * <p>With {@code salary.pdf.lazy} enabled nothing is rendered here: the job is done as soon as the salary
+ * is saved with its breakdown, and {@link SalarySlipMaterializer} renders the slip when it is first viewed.</p>
+ */
+@Service
+@Slf4j
+public class SalarySlipJobService {
+
+    private final SalarySlipJobRepository salarySlipJobRepository;
+    private final SalaryRepository salaryRepository;
+    private final PdfGeneratorService pdfGenerator;
+    private final NotificationService notificationService;
+    private final SalarySlipContentCache salarySlipContentCache;
+    private final TransactionTemplate requiresNew;
+    private final ThreadPoolExecutor executor;
+    private final boolean lazy;
+
+    /**
+     * Jobs handed to the executor and not finished yet.
+     */
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Locks striped by salary id, held while a slip is claimed, rendered and recorded.
+     */
+    private final ReentrantLock[] salaryLocks = new ReentrantLock[64];
+
+    public SalarySlipJobService(SalarySlipJobRepository salarySlipJobRepository,
+                                SalaryRepository salaryRepository,
+                                PdfGeneratorService pdfGenerator,
+                                NotificationService notificationService,
+                                SalarySlipContentCache salarySlipContentCache,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${salary.pdf.workers:0}") int workers,
+                                @Value("${salary.pdf.queue-capacity:500}") int queueCapacity,
+                                @Value("${salary.pdf.lazy:false}") boolean lazy) {
+        this.salarySlipJobRepository = salarySlipJobRepository;
+        this.salaryRepository = salaryRepository;
+        this.pdfGenerator = pdfGenerator;
+        this.notificationService = notificationService;
+        this.salarySlipContentCache = salarySlipContentCache;
+        this.lazy = lazy;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < salaryLocks.length; i++) {
+            salaryLocks[i] = new ReentrantLock();
+        }
+
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("salary-slip-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Persists a job for the salary record and queues its PDF rendering.
+     *
+     * <p>When called inside a transaction the slip is queued only after commit, so the worker
+     * always sees the salary record and the job. A slip that does not fit in the queue is left
+     * to the sweeper.</p>
+     *
+     * @param user   owner of the employee
+     * @param salary saved salary record, without a slip path yet
+     * @param data   calculated slip data, the slip is rendered from the breakdown saved with the salary
+     * @param notify whether to notify the user when the slip is ready
+     * @return the queued job
+     */
+    public SalarySlipJobDto enqueue(User user, Salary salary, SalarySlipData data, boolean notify) {
+
+        if (lazy) {
+            return defer(user, salary, data, notify);
+        }
+
+        SalarySlipJob job = new SalarySlipJob();
+        job.setSalary(salary);
+        job.setUser(user);
+        job.setStatus(SalarySlipJobStatus.QUEUED);
+        job.setNotifyUser(notify);
+        salarySlipJobRepository.save(job);
+
+        Long jobId = job.getId();
+        Long salaryId = salary.getId();
+        afterCommit(() -> submit(jobId));
+
+        return new SalarySlipJobDto(jobId, salaryId, job.getStatus(), null, job.getCreatedAt(), null);
+    }
+
+    /**
+     * Completes the job of a deferred slip right away. The previous slip file is dropped and the generation
+     * time moves on, so the slip is rendered again from the saved breakdown when it is next viewed.
+     * The user is notified in a transaction of its own once the salary is committed, since the
+     * notification refreshes the user's clients as soon as it is saved.
+     */
+    private SalarySlipJobDto defer(User user, Salary salary, SalarySlipData data, boolean notify) {
+
+        salary.setPathOfTlush(null);
+        salary.setSlipGeneratedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        salaryRepository.save(salary);
+        salarySlipContentCache.invalidateAfterCommit(salary.getId());
+
+        SalarySlipJob job = new SalarySlipJob();
+        job.setSalary(salary);
+        job.setUser(user);
+        job.setStatus(SalarySlipJobStatus.DONE);
+        job.setCompletedAt(LocalDateTime.now());
+        salarySlipJobRepository.save(job);
+
+        if (notify) {
+            afterCommit(() -> inNewTransaction(
+                    () -> notificationService.createNotaficationPayroll(user, data.employeeName())));
+        }
+
+        return new SalarySlipJobDto(job.getId(), salary.getId(), job.getStatus(), null,
+                job.getCreatedAt(), job.getCompletedAt());
+    }
+
+    /**
+     * Runs the task once the current transaction commits, or right away outside a transaction.
+     */
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Returns the status of a job owned by the user.
+     */
+    public Optional<SalarySlipJobDto> getJobStatus(String username, Long jobId) {
+        return salarySlipJobRepository.findJobStatus(jobId, username);
+    }
+
+    /**
+     * Returns the most recent job of a salary record, if it has one.
+     */
+    public Optional<SalarySlipJobDto> getLatestJob(Long salaryId) {
+        return salarySlipJobRepository.findJobsOfSalary(salaryId).stream().findFirst();
+    }
+
+    /**
+     * Hands a job to the workers. A full queue leaves the job QUEUED for the sweeper; during shutdown the job fails.
+     *
+     * @return whether the job was handed over or is already with the workers
+     */
+    private boolean submit(Long jobId) {
+        if (!submitted.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(jobId);
+                } finally {
+                    submitted.remove(jobId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            submitted.remove(jobId);
+            if (executor.isShutdown()) {
+                log.warn("Salary slip job {} rejected during shutdown", jobId);
+                inNewTransaction(() -> salarySlipJobRepository.updateStatus(jobId, SalarySlipJobStatus.FAILED,
+                        "Rejected during application shutdown", LocalDateTime.now()));
+            } else {
+                log.debug("Salary slip queue is full, job {} left for the sweeper", jobId);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Renders the slip of a job from the breakdown stored with its salary at the time the job is claimed.
+     *
+     * <p>Jobs of the same salary are rendered one at a time, and a job whose salary already has a newer job
+     * is superseded instead of rendered, so the slip on disk is always rendered from the latest breakdown.</p>
+     */
+    private void render(Long jobId) {
+        SalarySlipJob job = salarySlipJobRepository.findWithSalary(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        Long salaryId = job.getSalary().getId();
+        User user = job.getUser();
+
+        SalarySlipData data;
+        ReentrantLock lock = salaryLocks[Math.floorMod(salaryId.hashCode(), salaryLocks.length)];
+        lock.lock();
+        try {
+            Integer claimed = requiresNew.execute(_ -> salarySlipJobRepository.claim(jobId));
+            if (claimed == null || claimed == 0) {
+                inNewTransaction(() -> salarySlipJobRepository.supersede(jobId, LocalDateTime.now()));
+                return;
+            }
+
+            Salary salary = salaryRepository.findSlipSource(salaryId, user.getUsername()).orElse(null);
+            if (salary == null || salary.getBreakdown() == null || salary.getBreakdown().getGrossSalary() == null) {
+                inNewTransaction(() -> salarySlipJobRepository.updateStatus(jobId, SalarySlipJobStatus.FAILED,
+                        "Slip data is not stored for this salary", LocalDateTime.now()));
+                return;
+            }
+            data = SalarySlipMaterializer.slipData(salary);
+
+            String pdfPath = pdfGenerator.generateSalaryPdf(data);
+            inNewTransaction(() -> {
+                salaryRepository.updateSlipFile(salaryId, pdfPath, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+                salarySlipJobRepository.updateStatus(jobId, SalarySlipJobStatus.DONE, null, LocalDateTime.now());
+            });
+            salarySlipContentCache.invalidate(salaryId);
+        } catch (Exception e) {
+            log.error("Salary slip job {} failed for salary {}: {}", jobId, salaryId, e.getMessage());
+            inNewTransaction(() -> salarySlipJobRepository.updateStatus(jobId, SalarySlipJobStatus.FAILED,
+                    e.getMessage(), LocalDateTime.now()));
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        if (Boolean.TRUE.equals(job.getNotifyUser())) {
+            try {
+                inNewTransaction(() -> notificationService.createNotaficationPayroll(user, data.employeeName()));
+            } catch (RuntimeException e) {
+                log.error("Failed to notify user {} of salary slip job {}: {}", user.getUsername(), jobId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Submits the queued jobs that did not fit in the queue, oldest first, as long as the queue has room.
+     */
+    @Scheduled(fixedDelayString = "${salary.pdf.sweep-interval-ms:5000}")
+    public void submitQueuedJobs() {
+        if (lazy || executor.isShutdown()) {
+            return;
+        }
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+
+        List<Long> queued = salarySlipJobRepository.findQueuedJobIds(Limit.of(room + submitted.size()));
+        for (Long jobId : queued) {
+            if (submitted.contains(jobId)) {
+                continue;
+            }
+            if (!submit(jobId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Jobs being rendered by a previous instance are queued again and picked up by the sweeper.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueInterruptedJobs() {
+        int requeued = salarySlipJobRepository.requeueRunningJobs();
+        if (requeued > 0) {
+            log.warn("Queued {} interrupted salary slip jobs again", requeued);
+        }
+    }
+
+    private void inNewTransaction(Runnable action) {
+        requiresNew.executeWithoutResult(_ -> action.run());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Salary slip rendering did not finish in time, {} slips left in queue", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import com.ms.sw.employee.model.Employees;
+import com.ms.sw.employee.model.Salary;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.user.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Service responsible for rendering deferred salary slips when they are first viewed.
+ *
+ * <p>With {@code salary.pdf.lazy} enabled, {@link SalarySlipJobService} does not render slips; their
+ * {@link com.ms.sw.employee.model.SalaryBreakdown} is stored with the salary record instead. A deferred
+ * slip is rendered from it on first view or download into {@code salary.pdf.cache.path} and kept there
+ * while the cache holds less than {@code salary.pdf.cache.max-bytes}; beyond that the least recently
+ * served slips are deleted and rendered again when they are next requested.</p>
+ *
+ * <p>Cached files are named after the salary id and slip generation time, so a recalculated salary
+ * never serves its previous slip. Concurrent requests for the same slip render it once. A returned
+ * {@link SlipFile} holds its file in the cache until it is closed.</p>
+ */
+@Service
+@Slf4j
+public class SalarySlipMaterializer {
+
+    private static final String SUFFIX = ".pdf";
+
+    private final SalaryRepository salaryRepository;
+    private final PdfGeneratorService pdfGenerator;
+    private final Path cacheDirectory;
+    private final long maxBytes;
+
+    /**
+     * Cached slips by salary id and generation time, in access order, eldest first. Guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedFile> cachedFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Open {@link SlipFile} handles by cache key, these files are not evicted. Guarded by {@link #cachedFiles}.
+     */
+    private final Map<String, Integer> holders = new HashMap<>();
+
+    /**
+     * Renders in progress by cache key, completed with whether the slip could be rendered.
+     */
+    private final Map<String, CompletableFuture<Boolean>> rendering = new ConcurrentHashMap<>();
+
+    public SalarySlipMaterializer(SalaryRepository salaryRepository,
+                                  PdfGeneratorService pdfGenerator,
+                                  @Value("${salary.pdf.cache.path:/salary-slips/cache}") String cachePath,
+                                  @Value("${salary.pdf.cache.max-bytes:536870912}") long maxBytes) {
+        this.salaryRepository = salaryRepository;
+        this.pdfGenerator = pdfGenerator;
+        this.cacheDirectory = Path.of(cachePath);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Cached slip file and the name it is served under, {@code personalId_year-month.pdf} like rendered slips.
+     * The file is not evicted until the handle is closed, closing it again has no effect.
+     */
+    public final class SlipFile implements AutoCloseable {
+
+        private final String key;
+        private final Path path;
+        private final String fileName;
+        private boolean closed;
+
+        private SlipFile(CachedFile cached) {
+            this.key = cached.key();
+            this.path = cached.path();
+            this.fileName = cached.fileName();
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public String fileName() {
+            return fileName;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(key);
+        }
+    }
+
+    /**
+     * Returns the file of a deferred slip owned by the user, rendering it first if it is not cached.
+     * The caller must close the returned handle once it no longer reads the file.
+     *
+     * @param slip slip of a salary record of the user without a rendered file, as found by its owner
+     * @return the cached file, empty if the record has no stored breakdown to render from
+     */
+    public Optional<SlipFile> materialize(String username, SalarySlipFileDto slip) {
+
+        String key = slip.salaryId() + "-" + slip.lastModified().toEpochMilli();
+        while (true) {
+            synchronized (cachedFiles) {
+                CachedFile cached = cachedFiles.get(key);
+                if (cached != null) {
+                    if (Files.exists(cached.path())) {
+                        return Optional.of(hold(cached));
+                    }
+                    cachedFiles.remove(key);
+                    cachedBytes -= cached.size();
+                }
+            }
+
+            CompletableFuture<Boolean> rendered = new CompletableFuture<>();
+            CompletableFuture<Boolean> inProgress = rendering.putIfAbsent(key, rendered);
+            if (inProgress != null) {
+                if (!await(inProgress)) {
+                    return Optional.empty();
+                }
+                // held from the cache on the next pass, rendered again if it was evicted meanwhile
+                continue;
+            }
+
+            try {
+                SlipFile result = render(username, slip.salaryId(), key);
+                rendered.complete(result != null);
+                return Optional.ofNullable(result);
+            } catch (RuntimeException e) {
+                rendered.completeExceptionally(e);
+                throw e;
+            } finally {
+                rendering.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Writes a deferred slip owned by the user to {@code out}, rendering it first if it is not cached.
+     *
+     * @return whether the slip was written
+     */
+    public boolean writeTo(String username, SalarySlipFileDto slip, OutputStream out) throws IOException {
+        Optional<SlipFile> file = materialize(username, slip);
+        if (file.isEmpty()) {
+            return false;
+        }
+        try (SlipFile slipFile = file.get()) {
+            Files.copy(slipFile.path(), out);
+        }
+        return true;
+    }
+
+    /**
+     * Slips cached by a previous instance are kept, oldest first in eviction order; interrupted renders are deleted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCachedFiles() throws IOException {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(cacheDirectory)) {
+            files = listed.toList();
+        }
+
+        List<CachedFile> cached = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int separator = name.indexOf('_');
+            if (!name.endsWith(SUFFIX) || separator < 0) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            cached.add(new CachedFile(name.substring(0, separator), file, name.substring(separator + 1),
+                    Files.size(file), Files.getLastModifiedTime(file)));
+        }
+        cached.sort(Comparator.comparing(CachedFile::modified));
+
+        synchronized (cachedFiles) {
+            for (CachedFile file : cached) {
+                cachedFiles.put(file.key(), file);
+                cachedBytes += file.size();
+            }
+        }
+        evict();
+        log.info("Loaded {} cached salary slips ({} bytes)", cached.size(), cachedBytes);
+    }
+
+    private SlipFile render(String username, Long salaryId, String key) {
+
+        Salary salary = salaryRepository.findSlipSource(salaryId, username).orElse(null);
+        if (salary == null || salary.getBreakdown() == null || salary.getBreakdown().getGrossSalary() == null) {
+            return null;
+        }
+        SalarySlipData data = slipData(salary);
+        String fileName = String.format("%s_%d-%02d%s", data.personalId(), data.year(), data.month(), SUFFIX);
+        Path file = cacheDirectory.resolve(key + "_" + fileName);
+
+        long start = System.currentTimeMillis();
+        SlipFile rendered;
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path partial = Files.createTempFile(cacheDirectory, salaryId + "-", ".part");
+            try {
+                try (OutputStream out = Files.newOutputStream(partial)) {
+                    pdfGenerator.renderSalaryPdf(data, out);
+                }
+                Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+
+            CachedFile cached = new CachedFile(key, file, fileName, Files.size(file), Files.getLastModifiedTime(file));
+            synchronized (cachedFiles) {
+                CachedFile replaced = cachedFiles.put(key, cached);
+                cachedBytes += cached.size() - (replaced != null ? replaced.size() : 0);
+                rendered = hold(cached);
+            }
+        } catch (IOException e) {
+            log.error("Failed to render deferred salary slip {}", salaryId, e);
+            throw new UncheckedIOException("Failed to render salary slip PDF", e);
+        }
+
+        log.info("Rendered deferred salary slip {} in {} ms", salaryId, System.currentTimeMillis() - start);
+        evict();
+        return rendered;
+    }
+
+    /**
+     * Opens a handle on a cached slip, must be called holding the {@link #cachedFiles} lock.
+     */
+    private SlipFile hold(CachedFile cached) {
+        holders.merge(cached.key(), 1, Integer::sum);
+        return new SlipFile(cached);
+    }
+
+    private void release(String key) {
+        synchronized (cachedFiles) {
+            holders.computeIfPresent(key, (_, count) -> count > 1 ? count - 1 : null);
+        }
+        evict();
+    }
+
+    /**
+     * Deletes the least recently served slips until the cache fits, the most recent slip and slips with
+     * an open {@link SlipFile} are always kept. Files are deleted under the lock, so a slip rendered again
+     * under the same name is never deleted in its place.
+     */
+    private void evict() {
+        synchronized (cachedFiles) {
+            Iterator<CachedFile> eldest = cachedFiles.values().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                CachedFile entry = eldest.next();
+                if (!eldest.hasNext() || holders.containsKey(entry.key())) {
+                    continue;
+                }
+                eldest.remove();
+                cachedBytes -= entry.size();
+                try {
+                    Files.deleteIfExists(entry.path());
+                } catch (IOException e) {
+                    log.warn("Failed to delete cached salary slip {}: {}", entry.path(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the slip data of a salary record from its stored breakdown, the employee and owner must be loaded.
+     */
+    static SalarySlipData slipData(Salary salary) {
+        Employees employee = salary.getEmployee();
+        User user = employee.getUser();
+        return salary.getBreakdown().toSlipData(
+                user.getCompanyName(),
+                user.getCompanyId(),
+                user.getCompanyAddress(),
+                salary.getSalaryYear(),
+                salary.getSalaryMonth(),
+                employee.getFirstName() + " " + employee.getLastName(),
+                employee.getPersonalId(),
+                salary.getPaymentDate(),
+                salary.getSalaryAmount());
+    }
+
+    private static boolean await(CompletableFuture<Boolean> rendering) {
+        try {
+            return rendering.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedFile(String key, Path path, String fileName, long size, FileTime modified) {}
+}
@@ -0,0 +1,238 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import org.springframework.core.io.ClassPathResource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
+/**
+ * Salary slip HTML template compiled into literal segments and placeholder slots.
+ *
+ * <p>The template is parsed once; rendering appends every segment and slot value of a
+ * {@link SalarySlipData} to the given buffer in a single pass. Numbers are written with two
+ * decimals and a {@code '.'} separator regardless of the default locale.</p>
+ */
+final class SalarySlipTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final String[] HEBREW_MONTHS = {
+            "ינואר", "פברואר", "מרץ", "אפריל", "מאי", "יוני",
+            "יולי", "אוגוסט", "ספטמבר", "אוקטובר", "נובמבר", "דצמבר"
+    };
+
+    /**
+     * Largest amount in agorot formatted without falling back to {@link String#format}.
+     */
+    private static final double FAST_FORMAT_LIMIT = 1e9;
+    private static final double TIE_EPSILON = 1e-6;
+
+    @FunctionalInterface
+    private interface Slot {
+        void append(StringBuilder out, SalarySlipData data);
+    }
+
+    private static final Map<String, Slot> SLOTS = Map.ofEntries(
+            entry("companyName", (out, d) -> appendHebrew(out, d.companyName())),
+            entry("taxId", (out, d) -> out.append(d.companyId())),
+            entry("companyAddress", (out, d) -> appendHebrew(out, d.companyAddress())),
+
+            entry("monthName", (out, d) -> appendHebrew(out, HEBREW_MONTHS[d.month() - 1])),
+            entry("year", (out, d) -> out.append(d.year())),
+
+            entry("employeeName", (out, d) -> appendHebrew(out, d.employeeName())),
+            entry("personalId", (out, d) -> out.append(d.personalId())),
+            entry("department", (out, d) -> appendHebrew(out, d.department())),
+            entry("paymentDate", (out, d) -> DATE_FORMATTER.formatTo(d.paymentDate(), out)),
+
+            entry("regularHours", (out, d) -> appendFixed2(out, d.regularHours())),
+            entry("overtime125Hours", (out, d) -> appendFixed2(out, d.overtime125Hours())),
+            entry("overtime150Hours", (out, d) -> appendFixed2(out, d.overtime150Hours())),
+            entry("travelDays", (out, d) -> out.append(d.travelDays())),
+
+            entry("hourlyRate", (out, d) -> appendFixed2(out, d.hourlyRate())),
+            entry("overtime125Rate", (out, d) -> appendFixed2(out, d.hourlyRate() * 1.25)),
+            entry("overtime150Rate", (out, d) -> appendFixed2(out, d.hourlyRate() * 1.50)),
+
+            entry("regularPay", (out, d) -> appendFixed2(out, d.regularPay())),
+            entry("overtime125Pay", (out, d) -> appendFixed2(out, d.overtime125Pay())),
+            entry("overtime150Pay", (out, d) -> appendFixed2(out, d.overtime150Pay())),
+            entry("travelAllowance", (out, d) -> appendFixed2(out, d.travelAllowance())),
+            entry("grossSalary", (out, d) -> appendFixed2(out, d.grossSalary())),
+
+            entry("employeePension", (out, d) -> appendFixed2(out, d.employeePension())),
+            entry("nationalInsurance", (out, d) -> appendFixed2(out, d.nationalInsurance())),
+            entry("taxableIncome", (out, d) -> appendFixed2(out, d.taxableIncome())),
+            entry("incomeTax", (out, d) -> appendFixed2(out, d.incomeTax())),
+            entry("creditPoints", (out, d) -> appendFixed2(out, d.creditPoints())),
+            entry("totalDeductions", (out, d) -> appendFixed2(out, d.totalDeductions())),
+            entry("netSalary", (out, d) -> appendFixed2(out, d.netSalary())),
+
+            entry("employerPension", (out, d) -> appendFixed2(out, d.employerPension())),
+            entry("employerSeverance", (out, d) -> appendFixed2(out, d.employerSeverance())),
+            entry("employerNI", (out, d) -> appendFixed2(out, d.employerNI())),
+            entry("totalEmployerCost", (out, d) -> appendFixed2(out, d.totalEmployerCost())),
+
+            entry("generationDate", (out, d) -> DATE_FORMATTER.formatTo(d.paymentDate(), out))
+    );
+
+    private final String[] segments;
+    private final Slot[] slots;
+    private final int length;
+
+    private SalarySlipTemplate(String[] segments, Slot[] slots, int length) {
+        this.segments = segments;
+        this.slots = slots;
+        this.length = length;
+    }
+
+    /**
+     * Reads and compiles a template from the classpath.
+     */
+    static SalarySlipTemplate load(String classpathLocation) {
+        try (var in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read salary slip template " + classpathLocation, e);
+        }
+    }
+
+    /**
+     * Splits the template into literal segments around its {@code {{placeholder}}} slots.
+     *
+     * @throws IllegalStateException on an unknown or unterminated placeholder
+     */
+    static SalarySlipTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+
+        int position = 0;
+        int open;
+        while ((open = template.indexOf(OPEN, position)) >= 0) {
+            int close = template.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalStateException("Unterminated placeholder at index " + open);
+            }
+            String name = template.substring(open + OPEN.length(), close).trim();
+            Slot slot = SLOTS.get(name);
+            if (slot == null) {
+                throw new IllegalStateException("Unknown salary slip placeholder: " + name);
+            }
+            segments.add(template.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        segments.add(template.substring(position));
+
+        return new SalarySlipTemplate(segments.toArray(String[]::new), slots.toArray(Slot[]::new), template.length());
+    }
+
+    /**
+     * Length of the raw template, a good initial capacity for render buffers.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     */
+    void render(SalarySlipData data, StringBuilder out) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            slots[i].append(out, data);
+        }
+        out.append(segments[slots.length]);
+    }
+
+    /**
+     * Appends {@code value} exactly as {@code String.format(Locale.ROOT, "%.2f", value)} would.
+     *
+     * <p>Values close to a half-agora tie are delegated to {@link String#format}, whose rounding
+     * depends on the decimal representation of the double.</p>
+     */
+    static void appendFixed2(StringBuilder out, double value) {
+        double scaled = Math.abs(value) * 100;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+
+        if (!(scaled < FAST_FORMAT_LIMIT) || Math.abs(fraction - 0.5) < TIE_EPSILON) {
+            out.append(String.format(Locale.ROOT, "%.2f", value));
+            return;
+        }
+
+        long agorot = (long) floor + (fraction > 0.5 ? 1 : 0);
+        if (Double.compare(value, 0.0) < 0) {
+            out.append('-');
+        }
+        int cents = (int) (agorot % 100);
+        out.append(agorot / 100).append('.');
+        if (cents < 10) {
+            out.append('0');
+        }
+        out.append(cents);
+    }
+
+    /**
+     * Appends the text with Hebrew words in visual order, the PDF renderer does not apply bidi.
+     */
+    static void appendHebrew(StringBuilder out, String text) {
+        if (text == null) {
+            return;
+        }
+        if (!containsHebrew(text, 0, text.length())) {
+            out.append(text);
+            return;
+        }
+
+        // trailing separators are dropped, like String.split
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        while (end >= 0) {
+            int start = text.lastIndexOf(' ', end - 1) + 1;
+            if (containsHebrew(text, start, end)) {
+                appendReversed(out, text, start, end);
+            } else {
+                out.append(text, start, end);
+            }
+            if (start == 0) {
+                break;
+            }
+            out.append(' ');
+            end = start - 1;
+        }
+    }
+
+    private static void appendReversed(StringBuilder out, String text, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            char c = text.charAt(i);
+            if (Character.isLowSurrogate(c) && i > start && Character.isHighSurrogate(text.charAt(i - 1))) {
+                out.append(text.charAt(--i));
+            }
+            out.append(c);
+        }
+    }
+
+    private static boolean containsHebrew(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x0590 && c <= 0x05FF) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
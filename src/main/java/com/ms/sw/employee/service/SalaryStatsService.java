@@ -1,19 +1,28 @@
 package com.ms.sw.employee.service;
 
 import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.dto.SalaryDistributionDto;
+import com.ms.sw.employee.dto.SalarySlipFileDto;
 import com.ms.sw.employee.dto.SalarySlipDto;
+import com.ms.sw.employee.dto.SalarySlipSearchPageDto;
+import com.ms.sw.employee.dto.SalarySlipSearchRowDto;
 import com.ms.sw.employee.dto.SalaryStatsDto;
 import com.ms.sw.employee.dto.SalaryUpdateDetailsRequestDto;
-import com.ms.sw.employee.model.Salary;
 import com.ms.sw.employee.repo.SalaryDetailsRepository;
 import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import com.ms.sw.exception.employee.InvalidSlipCursorException;
 import com.ms.sw.user.model.User;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
+import java.time.YearMonth;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -21,13 +30,32 @@ public class SalaryStatsService {
 
     private final SalaryRepository salaryRepository;
     private final SalaryDetailsRepository salaryDetailsRepository;
+    private final SalaryRollupService salaryRollupService;
 
-    public SalaryStatsService(SalaryRepository salaryRepository, SalaryDetailsRepository salaryDetailsRepository) {
+    private final int maxPageSize;
+
+    public SalaryStatsService(SalaryRepository salaryRepository, SalaryDetailsRepository salaryDetailsRepository,
+                              SalaryRollupService salaryRollupService,
+                              @Value("${salary.slips.max-page-size:200}") int maxPageSize) {
         this.salaryRepository = salaryRepository;
         this.salaryDetailsRepository = salaryDetailsRepository;
+        this.salaryRollupService = salaryRollupService;
+        this.maxPageSize = Math.max(1, maxPageSize);
     }
 
+    /**
+     * Returns total, average and max net salary of the month from the salary rollups.
+     * Months with salaries calculated before rollups were kept, which the rollups do not count,
+     * are summed from the salary table.
+     */
     public SalaryStatsDto getSalaryStats(User user, int year, int month){
+        int period = year * 100 + month;
+        SalaryDistributionDto distribution = salaryRollupService.getDistribution(user.getUsername(), period, period, null);
+        if (distribution.count() > 0
+                && !salaryRepository.hasSalariesWithoutBreakdown(user.getUsername(), year, month)) {
+            return new SalaryStatsDto(distribution.totalSalary(), distribution.avgSalary(), distribution.maxSalary());
+        }
+
         List<SalaryStatsDto> list = salaryRepository.getSalaryStats(user.getUsername(), year, month);
 
         if (list.isEmpty()) {
@@ -51,6 +79,14 @@ public class SalaryStatsService {
         return new SalaryStatsDto(total,avg,max);
     }
 
+    /**
+     * Returns the merged net salary distribution of the months from {@code fromPeriod} to {@code toPeriod},
+     * where a period is {@code year * 100 + month}.
+     */
+    public SalaryDistributionDto getSalaryDistribution(User user, int fromPeriod, int toPeriod, String department) {
+        return salaryRollupService.getDistribution(user.getUsername(), fromPeriod, toPeriod, department);
+    }
+
     public SalaryDetailsDto getSalaryDetails(String username,String personalId){
 
         log.info("SalaryStatsService::getSalaryDetails invoked by {}",username);
@@ -84,16 +120,107 @@ public class SalaryStatsService {
                 requestDto.totalVacationDays()
         );
     }
-    public List<SalarySlipDto> searchSalarySlips(String personalId, int year, int month) {
-        log.info("Searching salary slips for: {}, year: {}, month: {}", personalId, year, month);
-        List<Salary> salaries = salaryRepository.searchSalariesForView(personalId, year, month);
+    /**
+     * Returns the salary slips of an employee of the user in a year, or in one month of it when {@code month} is not 0.
+     */
+    public List<SalarySlipDto> searchSalarySlips(String username, String personalId, int year, int month) {
+        log.info("Searching salary slips of user {} for: {}, year: {}, month: {}", username, personalId, year, month);
+        int fromPeriod = year * 100 + (month == 0 ? 1 : month);
+        int toPeriod = year * 100 + (month == 0 ? 12 : month);
+
+        return salaryRepository.searchSalarySlips(username, personalId, null, year, year, fromPeriod, toPeriod,
+                        0, 0, null, Limit.unlimited())
+                .stream()
+                .map(s -> new SalarySlipDto(s.salaryId(), s.year(), s.month(), s.salaryAmount()))
+                .toList();
+    }
+
+    /**
+     * Returns one page of the salary slips of the user's employees from {@code from} to {@code to}, newest month first.
+     * {@code personalId} and {@code department} filter only when given.
+     *
+     * @param cursor {@code nextCursor} of the previous page, {@code null} for the first page
+     * @param size   page size, at most {@code salary.slips.max-page-size}
+     * @throws InvalidPayrollPeriodException if the range is invalid
+     * @throws InvalidSlipCursorException    if the cursor was not returned by a previous page
+     */
+    public SalarySlipSearchPageDto searchSalarySlips(String username, String personalId, String department,
+                                                     int fromYear, int fromMonth, int toYear, int toMonth,
+                                                     String cursor, int size) {
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = YearMonth.of(fromYear, fromMonth);
+            to = YearMonth.of(toYear, toMonth);
+        } catch (DateTimeException e) {
+            throw new InvalidPayrollPeriodException("Invalid salary slip search month");
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidPayrollPeriodException("Invalid salary slip search period");
+        }
+
+        SlipCursor after = cursor != null && !cursor.isBlank() ? SlipCursor.parse(cursor) : null;
+        int pageSize = Math.clamp(size, 1, maxPageSize);
+
+        // one row more than the page tells whether another page follows
+        List<SalarySlipSearchRowDto> rows = salaryRepository.searchSalarySlips(
+                username,
+                blankToNull(personalId),
+                blankToNull(department),
+                from.getYear(), to.getYear(),
+                period(from), period(to),
+                after != null ? after.year() : 0,
+                after != null ? after.month() : 0,
+                after != null ? after.salaryId() : null,
+                Limit.of(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new SalarySlipSearchPageDto(rows, null);
+        }
+        List<SalarySlipSearchRowDto> page = rows.subList(0, pageSize);
+        SalarySlipSearchRowDto last = page.getLast();
+        return new SalarySlipSearchPageDto(List.copyOf(page),
+                new SlipCursor(last.year(), last.month(), last.salaryId()).format());
+    }
 
-        return salaries.stream()
-                .map(s -> new SalarySlipDto(s.getId(), s.getSalaryYear(), s.getSalaryMonth(), s.getSalaryAmount()))
-                .collect(Collectors.toList());
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
     }
-    public Salary getSalaryById(Long id) {
-        return salaryRepository.findById(id).orElseThrow(() -> new RuntimeException("Salary record not found for ID: " + id));
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+
+    /**
+     * Position after the last slip of a page, written as {@code year-month-salaryId}.
+     */
+    private record SlipCursor(int year, int month, long salaryId) {
+
+        static SlipCursor parse(String cursor) {
+            String[] parts = cursor.split("-");
+            if (parts.length != 3) {
+                throw new InvalidSlipCursorException("Invalid salary slip cursor");
+            }
+            try {
+                SlipCursor parsed = new SlipCursor(
+                        Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+                YearMonth.of(parsed.year(), parsed.month());
+                return parsed;
+            } catch (NumberFormatException | DateTimeException e) {
+                throw new InvalidSlipCursorException("Invalid salary slip cursor");
+            }
+        }
+
+        String format() {
+            return year + "-" + month + "-" + salaryId;
+        }
+    }
+
+    /**
+     * Returns the slip file of a salary record owned by the user, without loading the salary entity.
+     */
+    public Optional<SalarySlipFileDto> getSlipFile(String username, Long salaryId) {
+        return salaryRepository.findSlipFile(salaryId, username);
     }
 
 }
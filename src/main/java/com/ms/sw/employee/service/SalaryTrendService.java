@@ -0,0 +1,196 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.service.AttendanceService;
+import com.ms.sw.employee.dto.SalaryTrendPointDto;
+import com.ms.sw.employee.repo.SalaryRepository;
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Service responsible for the monthly salary trend of a user.
+ *
+ * <p>Total, average and max net salary of every month in the range are read with one grouped query.
+ * Past months whose attendance is closed are kept in memory, since their salaries only change when
+ * they are recalculated, and {@link SalaryRecordService} evicts the month whenever it saves one of them.
+ * At most {@code salary.trend.cache.max-months} months are kept, the least recently read are dropped first.</p>
+ *
+ * <p>An evicted month is kept as a marker stamped with the eviction, and a month loaded before it is not
+ * cached again, so a trend read while the month was being recalculated never outlives the recalculation.</p>
+ */
+@Service
+@Slf4j
+public class SalaryTrendService {
+
+    private final SalaryRepository salaryRepository;
+    private final AttendanceService attendanceService;
+    private final int maxMonths;
+    private final int maxCachedMonths;
+
+    /**
+     * Cached closed months and eviction markers in access order, eldest first. Guarded by itself.
+     */
+    private final LinkedHashMap<TrendKey, CachedMonth> closedMonths = new LinkedHashMap<>(16, 0.75f, true);
+    private long evictions;
+    private long droppedEvictions;
+
+    public SalaryTrendService(SalaryRepository salaryRepository,
+                              AttendanceService attendanceService,
+                              @Value("${salary.trend.max-months:120}") int maxMonths,
+                              @Value("${salary.trend.cache.max-months:10000}") int maxCachedMonths) {
+        this.salaryRepository = salaryRepository;
+        this.attendanceService = attendanceService;
+        this.maxMonths = maxMonths;
+        this.maxCachedMonths = Math.max(1, maxCachedMonths);
+    }
+
+    private record TrendKey(String username, YearMonth month) {}
+
+    /**
+     * Cached point of a closed month, or only the marker of its eviction when {@code point} is {@code null}.
+     *
+     * @param evictedAt eviction count when the month was last evicted, 0 if it never was
+     */
+    private record CachedMonth(SalaryTrendPointDto point, long evictedAt) {}
+
+    /**
+     * Returns one point per month from {@code from} to {@code to} inclusive, months without salaries have zero totals.
+     *
+     * @throws InvalidPayrollPeriodException if the range is invalid or longer than {@code salary.trend.max-months}
+     */
+    public List<SalaryTrendPointDto> getTrend(String username, int fromYear, int fromMonth, int toYear, int toMonth) {
+
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = YearMonth.of(fromYear, fromMonth);
+            to = YearMonth.of(toYear, toMonth);
+        } catch (DateTimeException e) {
+            throw new InvalidPayrollPeriodException("Invalid salary trend month");
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidPayrollPeriodException("Invalid salary trend period");
+        }
+        List<YearMonth> months = Stream.iterate(from, month -> !month.isAfter(to), month -> month.plusMonths(1))
+                .limit(maxMonths + 1L)
+                .toList();
+        if (months.size() > maxMonths) {
+            throw new InvalidPayrollPeriodException("Salary trend period is longer than " + maxMonths + " months");
+        }
+
+        Map<YearMonth, SalaryTrendPointDto> points = HashMap.newHashMap(months.size());
+        YearMonth firstMissing = null;
+        YearMonth lastMissing = null;
+        long loadedAt;
+        synchronized (closedMonths) {
+            loadedAt = evictions;
+            for (YearMonth month : months) {
+                CachedMonth cached = closedMonths.get(new TrendKey(username, month));
+                if (cached != null && cached.point() != null) {
+                    points.put(month, cached.point());
+                } else {
+                    firstMissing = firstMissing == null ? month : firstMissing;
+                    lastMissing = month;
+                }
+            }
+        }
+
+        if (firstMissing != null) {
+            loadMonths(username, firstMissing, lastMissing, points, loadedAt);
+        }
+        return months.stream().map(points::get).toList();
+    }
+
+    /**
+     * Drops the cached month of the user once the current transaction commits, or right away outside a transaction.
+     */
+    public void evictAfterCommit(String username, int year, int month) {
+        TrendKey key = new TrendKey(username, YearMonth.of(year, month));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key);
+                }
+            });
+        } else {
+            evict(key);
+        }
+    }
+
+    private void evict(TrendKey key) {
+        synchronized (closedMonths) {
+            closedMonths.put(key, new CachedMonth(null, ++evictions));
+            trim();
+        }
+    }
+
+    /**
+     * Caches a closed month unless it was evicted since {@code loadedAt}. Once an eviction marker has been
+     * dropped to stay within the size limit, months loaded before it are not cached at all.
+     *
+     * @param loadedAt eviction count read before the month was loaded
+     */
+    private void cache(TrendKey key, SalaryTrendPointDto point, long loadedAt) {
+        synchronized (closedMonths) {
+            CachedMonth cached = closedMonths.get(key);
+            if (loadedAt < droppedEvictions || cached != null && cached.evictedAt() > loadedAt) {
+                return;
+            }
+            closedMonths.put(key, new CachedMonth(point, cached != null ? cached.evictedAt() : 0));
+            trim();
+        }
+    }
+
+    private void trim() {
+        while (closedMonths.size() > maxCachedMonths) {
+            CachedMonth eldest = closedMonths.pollFirstEntry().getValue();
+            droppedEvictions = Math.max(droppedEvictions, eldest.evictedAt());
+        }
+    }
+
+    /**
+     * Loads the months between {@code from} and {@code to} that are not in {@code points} yet and caches the closed ones.
+     *
+     * @param loadedAt eviction count read before the cache was looked up
+     */
+    private void loadMonths(String username, YearMonth from, YearMonth to, Map<YearMonth, SalaryTrendPointDto> points,
+                            long loadedAt) {
+
+        Set<YearMonth> openMonths = attendanceService.getOpenMonths(username, from, to);
+
+        Map<YearMonth, SalaryTrendPointDto> loaded = new HashMap<>();
+        for (SalaryTrendPointDto point : salaryRepository.getSalaryTrend(username, period(from), period(to))) {
+            loaded.put(YearMonth.of(point.year(), point.month()), point);
+        }
+
+        YearMonth current = YearMonth.now();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (points.containsKey(month)) {
+                continue;
+            }
+            SalaryTrendPointDto point = loaded.getOrDefault(month,
+                    new SalaryTrendPointDto(month.getYear(), month.getMonthValue(), 0.0, 0.0, 0.0));
+            points.put(month, point);
+            if (month.isBefore(current) && !openMonths.contains(month)) {
+                cache(new TrendKey(username, month), point, loadedAt);
+            }
+        }
+        log.debug("Loaded salary trend of user {} from {} to {}", username, from, to);
+    }
+
+    private static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
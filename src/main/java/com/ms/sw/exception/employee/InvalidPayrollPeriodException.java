@@ -0,0 +1,9 @@
+package com.ms.sw.exception.employee;
+
+
+public class InvalidPayrollPeriodException extends RuntimeException {
+
+    public InvalidPayrollPeriodException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ms.sw.exception.employee;
+
+
+public class InvalidSlipCursorException extends RuntimeException {
+
+    public InvalidSlipCursorException(String message) {
+        super(message);
+    }
+}
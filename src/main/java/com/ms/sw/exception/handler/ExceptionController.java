@@ -4,6 +4,8 @@ import com.ms.sw.exception.auth.JwtExpiredException;
 import com.ms.sw.exception.auth.JwtInvalidException;
 import com.ms.sw.exception.employee.AddEmployeeException;
 import com.ms.sw.exception.employee.EmployeeNotFoundException;
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import com.ms.sw.exception.employee.InvalidSlipCursorException;
 import com.ms.sw.exception.user.EmailAlreadyExistsException;
 import com.ms.sw.exception.user.InvalidCredentialsException;
 import com.ms.sw.exception.user.UserAlreadyExistsException;
@@ -41,7 +43,8 @@ public class ExceptionController {
     }
 
     // 400 - Bad Request
-    @ExceptionHandler({AddEmployeeException.class, InvalidCredentialsException.class})
+    @ExceptionHandler({AddEmployeeException.class, InvalidCredentialsException.class, InvalidPayrollPeriodException.class,
+            InvalidSlipCursorException.class})
     public ResponseEntity<ErrorResponse> handleBadRequest(RuntimeException ex, HttpServletRequest request) {
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
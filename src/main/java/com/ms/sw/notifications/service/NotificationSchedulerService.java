@@ -1,5 +1,6 @@
 package com.ms.sw.notifications.service;
 
+import com.ms.sw.config.DbConcurrencyLimiter;
 import com.ms.sw.employee.model.Employees;
 import com.ms.sw.employee.repo.EmployeeRepository;
 import com.ms.sw.user.model.Events;
@@ -29,24 +30,28 @@ public class NotificationSchedulerService {
     private final EmployeeRepository employeeRepository;
     private final NotificationService notificationService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final DbConcurrencyLimiter dbConcurrencyLimiter;
 
     public NotificationSchedulerService(EventsRepository eventsRepository,
                                         EmployeeRepository employeeRepository,
                                         NotificationService notificationService,
-                                        SimpMessagingTemplate messagingTemplate) {
+                                        SimpMessagingTemplate messagingTemplate,
+                                        DbConcurrencyLimiter dbConcurrencyLimiter) {
         this.eventsRepository = eventsRepository;
         this.employeeRepository = employeeRepository;
         this.notificationService = notificationService;
         this.messagingTemplate = messagingTemplate;
+        this.dbConcurrencyLimiter = dbConcurrencyLimiter;
     }
     @Scheduled(cron = "0 0 7 * * ?")
     public void sendNotfications() {
         log.info("Sending notifications");
 
         try(var scope = StructuredTaskScope.open(StructuredTaskScope.Joiner.awaitAllSuccessfulOrThrow())){
-           scope.fork(this::sendUpcomingEventsNotification);
-           scope.fork(this::sendTodayEventNotifications);
-           scope.fork(this::sendBirthdayReminders);
+           // every fork queries and writes notifications, so each one waits for a database permit
+           scope.fork(() -> { dbConcurrencyLimiter.run(this::sendUpcomingEventsNotification); return null; });
+           scope.fork(() -> { dbConcurrencyLimiter.run(this::sendTodayEventNotifications); return null; });
+           scope.fork(() -> { dbConcurrencyLimiter.run(this::sendBirthdayReminders); return null; });
 
            scope.join();
 
@@ -109,6 +109,46 @@ public class NotificationService {
         createNotification(user,message,NotificationType.PAYROLL);
     }
 
+    /**
+     * Creates a single summary notification for a finished bulk payroll run.
+     *
+     * @param user      user who started the run
+     * @param year      payroll year
+     * @param month     payroll month
+     * @param succeeded number of slips generated
+     * @param failed    number of employees that failed
+     */
+    public void createPayrollRunSummary(User user, int year, int month, int succeeded, int failed) {
+        String message = String.format(
+                NotificationMessages.PAYROLL_RUN_SUMMARY,
+                month,
+                year,
+                succeeded,
+                failed
+        );
+        createNotification(user, message, NotificationType.PAYROLL);
+    }
+
+    /**
+     * Creates a notification for a bulk payroll run that stopped on an unexpected error.
+     *
+     * @param user      user who started the run
+     * @param year      payroll year
+     * @param month     payroll month
+     * @param succeeded number of slips generated before the run stopped
+     * @param failed    number of employees that failed before the run stopped
+     */
+    public void createPayrollRunFailed(User user, int year, int month, int succeeded, int failed) {
+        String message = String.format(
+                NotificationMessages.PAYROLL_RUN_FAILED,
+                month,
+                year,
+                succeeded,
+                failed
+        );
+        createNotification(user, message, NotificationType.PAYROLL);
+    }
+
     /**
      * Retrieves all notifications for the given username.
      *
@@ -11,6 +11,8 @@ public class NotificationMessages {
     public static final String BIRTHDAY_REMINDER = "יום הולדת לעובד/ת %s מגיע ב-%s";
 
     public static final String PAYROLL_NOTIFY = "נוצר תלוש שכר לעובד %s";
+    public static final String PAYROLL_RUN_SUMMARY = "הרצת שכר לחודש %02d/%d הסתיימה: %d תלושים הופקו, %d נכשלו";
+    public static final String PAYROLL_RUN_FAILED = "הרצת שכר לחודש %02d/%d נעצרה בשל תקלה: %d תלושים הופקו, %d נכשלו. ניתן לחדש את ההרצה";
     private NotificationMessages() {
         // Prevent instantiation
     }
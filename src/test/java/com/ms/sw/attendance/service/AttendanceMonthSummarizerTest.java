@@ -0,0 +1,49 @@
+package com.ms.sw.attendance.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendancePayrollDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the per-day overtime split and the day counts of {@link AttendanceMonthSummarizer}.
+ */
+class AttendanceMonthSummarizerTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void splitsEveryDayIntoRegularAndOvertimeHours() {
+        List<AttendancePayrollDto> days = List.of(
+                day(1, 7.5, "PRESENT", true),
+                day(2, 9.25, "PRESENT", false),
+                day(3, 11.5, "present", true),
+                day(4, 0, "SICK", false),
+                day(5, 0, "VACATION", false),
+                day(6, 8, null, false)
+        );
+
+        AttendanceMonthSummaryDto summary = AttendanceMonthSummarizer.summarize(
+                "123456789", YearMonth.of(2026, 3), days, 8, 2);
+
+        assertEquals(7.5 + 8 + 8 + 8, summary.regularHours(), EPSILON);
+        assertEquals(1.25 + 2, summary.hours125(), EPSILON);
+        assertEquals(1.5, summary.hours150(), EPSILON);
+        assertEquals(2, summary.travelDays());
+        assertEquals(3, summary.presentDays());
+        assertEquals(1, summary.sickDays());
+        assertEquals(1, summary.vacationDays());
+        assertEquals(6, summary.totalDays());
+        assertEquals(2026, summary.year());
+        assertEquals(3, summary.month());
+    }
+
+    private static AttendancePayrollDto day(int dayOfMonth, double hours, String status, boolean travel) {
+        return new AttendancePayrollDto("123456789", LocalDate.of(2026, 3, dayOfMonth), hours, status, travel);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ms.sw.employee.model;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a deferred slip is rendered from the same data as the slip its breakdown was stored from.
+ */
+class SalaryBreakdownTest {
+
+    private final SalarySlipData data = new SalarySlipData(
+            "Acme Ltd", "515151515", "Herzl 1, Tel Aviv",
+            2026, 3,
+            "Dana Cohen", "123456789", "QA", LocalDate.of(2026, 4, 9),
+            "Migdal", "Harel", "Clal",
+            160, 12.5, 3, 20,
+            55.5, 8880, 867.19, 249.75, 450, 10446.94,
+            626.82, 412.5, 9820.12, 735.4, 1774.72, 8672.22,
+            2.25,
+            783.52, 869.03, 381.31, 12480.8);
+
+    @Test
+    void storedBreakdownRebuildsTheSlipData() {
+        SalaryBreakdown breakdown = SalaryBreakdown.of(data);
+
+        assertEquals(data, breakdown.toSlipData("Acme Ltd", "515151515", "Herzl 1, Tel Aviv",
+                2026, 3, "Dana Levi", "123456789", LocalDate.of(2026, 4, 9), 8672.22));
+    }
+
+    @Test
+    void missingAmountsOfOlderRecordsAreZero() {
+        SalaryBreakdown breakdown = new SalaryBreakdown();
+        breakdown.setGrossSalary(10000.0);
+
+        SalarySlipData rebuilt = breakdown.toSlipData("Acme Ltd", "515151515", "Herzl 1, Tel Aviv",
+                2025, 12, "Dana Cohen", "123456789", LocalDate.of(2026, 1, 9), 8000);
+
+        assertEquals("Dana Cohen", rebuilt.employeeName());
+        assertEquals(10000.0, rebuilt.grossSalary());
+        assertEquals(0.0, rebuilt.incomeTax());
+        assertEquals(8000.0, rebuilt.netSalary());
+    }
+}
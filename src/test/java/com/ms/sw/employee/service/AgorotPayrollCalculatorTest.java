@@ -0,0 +1,189 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.attendance.dto.AttendancePayrollDto;
+import com.ms.sw.attendance.service.AttendanceMonthSummarizer;
+import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.PayrollParametersOverride;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.employee.dto.SalarySlipData;
+import com.ms.sw.user.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares {@link AgorotPayrollCalculator} with {@link PayrollCalculator} on generated months, from
+ * attendance rows with the default parameters and from month summaries with simulated ones.
+ *
+ * <p>Every amount printed on the slip must be identical, except where the exact amount lies on a
+ * half-agora tie that the {@code double} calculation rounds down because of binary drift.
+ * When that happens to the gross salary, amounts derived from it may differ by up to two agorot.</p>
+ */
+class AgorotPayrollCalculatorTest {
+
+    private static final double AGORA = 0.01;
+    private static final double EPSILON = 1e-9;
+
+    private final PayrollTaxTables taxTables = new PayrollTaxTables();
+    private final PayrollCalculator payrollCalculator = new PayrollCalculator(taxTables);
+    private final AgorotPayrollCalculator agorotPayrollCalculator = new AgorotPayrollCalculator(taxTables);
+
+    private final User user = new User();
+    private final EmployeePayrollDto employee = new EmployeePayrollDto("111111111", "עובד אחת", "DEV");
+
+    @Test
+    void matchesDoubleCalculationOnGeneratedMonths() {
+        Random random = new Random(20260101L);
+
+        for (int i = 0; i < 20_000; i++) {
+            LocalDate period = LocalDate.of(2023 + i % 4, 1 + i % 12, 1);
+            List<AttendancePayrollDto> attendance = generateMonth(random, period);
+            SalaryDetailsDto details = generateSalaryDetails(random);
+
+            SalarySlipData expected = payrollCalculator.calculate(user, employee, attendance, details);
+            SalarySlipData actual = agorotPayrollCalculator.calculate(user, employee, attendance, details);
+
+            assertSameSlip(expected, actual, "case " + i);
+        }
+    }
+
+    @Test
+    void matchesDoubleCalculationAcrossTaxBrackets() {
+        Random random = new Random(7L);
+
+        for (double rate = 30.0; rate <= 600.0; rate += 3.37) {
+            List<AttendancePayrollDto> attendance = generateMonth(random, LocalDate.of(2026, 1, 1));
+            SalaryDetailsDto details = salaryDetails(Math.round(rate * 100) / 100.0, 2.25);
+
+            SalarySlipData expected = payrollCalculator.calculate(user, employee, attendance, details);
+            SalarySlipData actual = agorotPayrollCalculator.calculate(user, employee, attendance, details);
+
+            assertSameSlip(expected, actual, "rate " + rate);
+        }
+    }
+
+    @Test
+    void matchesDoubleCalculationOnSummariesWithOtherParameters() {
+        Random random = new Random(31L);
+
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate period = LocalDate.of(2023 + i % 4, 1 + i % 12, 1);
+            PayrollParameters parameters = generateParameters(random);
+            AttendanceMonthSummaryDto summary = AttendanceMonthSummarizer.summarize(
+                    employee.personalId(), YearMonth.from(period), generateMonth(random, period),
+                    parameters.regularDailyHoursLimit(), parameters.overtime125Limit());
+            SalaryDetailsDto details = generateSalaryDetails(random);
+
+            SalarySlipData expected = payrollCalculator.calculate(user, employee, summary, details, parameters);
+            SalarySlipData actual = agorotPayrollCalculator.calculate(user, employee, summary, details, parameters);
+
+            assertSameSlip(expected, actual, "summary " + i);
+        }
+    }
+
+    @Test
+    void roundsHalfUpToAgorot() {
+        assertEquals(1, AgorotPayrollCalculator.roundDiv(5_000, 10_000));
+        assertEquals(0, AgorotPayrollCalculator.roundDiv(4_999, 10_000));
+        assertEquals(-1, AgorotPayrollCalculator.roundDiv(-5_000, 10_000));
+        assertEquals(2_260, AgorotPayrollCalculator.toAgorot(22.60));
+        assertEquals(833, AgorotPayrollCalculator.toRate(0.0833));
+    }
+
+    private void assertSameSlip(SalarySlipData expected, SalarySlipData actual, String message) {
+        assertEquals(expected.regularHours(), actual.regularHours(), EPSILON, message + " regularHours");
+        assertEquals(expected.overtime125Hours(), actual.overtime125Hours(), EPSILON, message + " overtime125Hours");
+        assertEquals(expected.overtime150Hours(), actual.overtime150Hours(), EPSILON, message + " overtime150Hours");
+        assertEquals(expected.travelDays(), actual.travelDays(), message + " travelDays");
+
+        assertAgorot(expected.regularPay(), actual.regularPay(), false, message + " regularPay");
+        assertAgorot(expected.overtime125Pay(), actual.overtime125Pay(), false, message + " overtime125Pay");
+        assertAgorot(expected.overtime150Pay(), actual.overtime150Pay(), false, message + " overtime150Pay");
+        assertAgorot(expected.travelAllowance(), actual.travelAllowance(), false, message + " travelAllowance");
+
+        double unroundedGross = expected.regularPay() + expected.overtime125Pay()
+                + expected.overtime150Pay() + expected.travelAllowance();
+        boolean grossDrifted = Math.abs(expected.grossSalary() - actual.grossSalary()) > AGORA / 2;
+        if (grossDrifted) {
+            assertEquals(AGORA, Math.abs(expected.grossSalary() - actual.grossSalary()), EPSILON, message + " grossSalary");
+            assertTrue(isHalfAgoraTie(unroundedGross), message + " grossSalary differs without a tie");
+        }
+
+        assertAgorot(expected.employeePension(), actual.employeePension(), grossDrifted, message + " employeePension");
+        assertAgorot(expected.nationalInsurance(), actual.nationalInsurance(), grossDrifted, message + " nationalInsurance");
+        assertAgorot(expected.taxableIncome(), actual.taxableIncome(), grossDrifted, message + " taxableIncome");
+        assertAgorot(expected.incomeTax(), actual.incomeTax(), grossDrifted, message + " incomeTax");
+        assertAgorot(expected.totalDeductions(), actual.totalDeductions(), grossDrifted, message + " totalDeductions");
+        assertAgorot(expected.netSalary(), actual.netSalary(), grossDrifted, message + " netSalary");
+
+        assertAgorot(expected.employerPension(), actual.employerPension(), grossDrifted, message + " employerPension");
+        assertAgorot(expected.employerSeverance(), actual.employerSeverance(), grossDrifted, message + " employerSeverance");
+        assertAgorot(expected.employerNI(), actual.employerNI(), grossDrifted, message + " employerNI");
+        assertAgorot(expected.totalEmployerCost(), actual.totalEmployerCost(), grossDrifted, message + " totalEmployerCost");
+    }
+
+    /**
+     * The slip prints every amount with two decimals, so the double value is compared after the same rounding.
+     */
+    private void assertAgorot(double expected, double actual, boolean grossDrifted, String message) {
+        double printed = Math.round(expected / AGORA) * AGORA;
+        double difference = Math.abs(printed - actual);
+
+        if (difference < AGORA / 2) {
+            return;
+        }
+        if (grossDrifted) {
+            assertTrue(difference < 2 * AGORA + EPSILON, message + " differs by " + difference);
+            return;
+        }
+        assertEquals(AGORA, difference, EPSILON, message);
+        assertTrue(isHalfAgoraTie(expected), message + " differs without a tie: " + expected + " vs " + actual);
+    }
+
+    private boolean isHalfAgoraTie(double amount) {
+        double agorot = Math.abs(amount) / AGORA;
+        return Math.abs(agorot - Math.floor(agorot) - 0.5) < 1e-6;
+    }
+
+    private List<AttendancePayrollDto> generateMonth(Random random, LocalDate date) {
+        List<AttendancePayrollDto> month = new ArrayList<>();
+
+        for (int day = 0; day < 22; day++) {
+            double hours = random.nextInt(5) == 0 ? 0 : random.nextInt(1300) / 100.0;
+            month.add(new AttendancePayrollDto(employee.personalId(), date.plusDays(day), hours,
+                    hours == 0 ? "SICK" : "PRESENT", random.nextDouble() < 0.4));
+        }
+        return month;
+    }
+
+    private PayrollParameters generateParameters(Random random) {
+        return PayrollParameters.DEFAULTS.withOverrides(new PayrollParametersOverride(
+                (1_000 + random.nextInt(4_000)) / 100.0,
+                (500 + random.nextInt(300)) / 10_000.0,
+                (600 + random.nextInt(200)) / 10_000.0,
+                (600 + random.nextInt(300)) / 10_000.0,
+                (700 + random.nextInt(200)) / 100.0,
+                (100 + random.nextInt(200)) / 100.0,
+                1.25 + random.nextInt(4) * 0.05,
+                1.5 + random.nextInt(4) * 0.05));
+    }
+
+    private SalaryDetailsDto generateSalaryDetails(Random random) {
+        double salaryPerHour = (3_000 + random.nextInt(40_000)) / 100.0;
+        double creditPoints = random.nextInt(30) * 0.25;
+        return salaryDetails(salaryPerHour, creditPoints);
+    }
+
+    private SalaryDetailsDto salaryDetails(double salaryPerHour, double creditPoints) {
+        return new SalaryDetailsDto("קרן פנסיה א", "קופת גמל ב", "חברת ביטוח ג",
+                10, 15, salaryPerHour, 3, creditPoints);
+    }
+}
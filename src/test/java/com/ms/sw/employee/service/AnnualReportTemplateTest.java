@@ -0,0 +1,41 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.AnnualReportData;
+import com.ms.sw.employee.dto.PayrollYearTotalsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnnualReportTemplateTest {
+
+    private static final String TEMPLATE_PATH = "templates/annual-report-template.html";
+
+    @Test
+    void rendersEveryTotal() {
+        AnnualReportTemplate template = AnnualReportTemplate.load(TEMPLATE_PATH);
+        AnnualReportData data = new AnnualReportData("Acme", "514000000", "Tel Aviv",
+                new PayrollYearTotalsDto("123456789", "Dana Levi", "R&D", 2024, 12,
+                        180000.5, 21000.25, 12000.75, 10800.03, 136199.47,
+                        11700.04, 14994.0, 6300.1, 212994.64),
+                LocalDate.of(2025, 1, 15));
+
+        StringBuilder out = new StringBuilder();
+        template.render(data, out);
+        String html = out.toString();
+
+        for (String expected : new String[]{"Acme", "514000000", "123456789", "2024", "180000.50", "21000.25",
+                "12000.75", "10800.03", "136199.47", "11700.04", "14994.00", "6300.10", "212994.64", "15/01/2025"}) {
+            assertTrue(html.contains(expected), expected);
+        }
+        assertFalse(html.contains("{{"), "unrendered placeholder");
+    }
+
+    @Test
+    void rejectsUnknownPlaceholder() {
+        assertThrows(IllegalStateException.class, () -> AnnualReportTemplate.compile("<p>{{hourlyRate}}</p>"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.attendance.dto.AttendanceMonthSummaryDto;
+import com.ms.sw.employee.dto.EmployeePayrollDto;
+import com.ms.sw.employee.dto.SalaryDetailsDto;
+import com.ms.sw.user.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks which payroll input changes the {@link PayrollFingerprint}.
+ */
+class PayrollFingerprintTest {
+
+    private static final YearMonth TAX_TABLE = YearMonth.of(2024, 1);
+
+    private final User user = new User();
+    private final EmployeePayrollDto employee = new EmployeePayrollDto("123456789", "Dana Cohen", "QA");
+    private final SalaryDetailsDto salaryDetails = new SalaryDetailsDto("Migdal", "Harel", "Clal", 3, 10, 55.5, 4, 2.25);
+    private final AttendanceMonthSummaryDto attendance = new AttendanceMonthSummaryDto(
+            "123456789", 2026, 1, 160, 12.5, 3, 8, 20, 1, 1, 22);
+
+    @Test
+    void sameInputGivesSameFingerprint() {
+        String fingerprint = PayrollFingerprint.of(user, employee, attendance, salaryDetails, TAX_TABLE);
+
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, PayrollFingerprint.of(user, employee, attendance, salaryDetails, TAX_TABLE));
+    }
+
+    @Test
+    void changedInputGivesNewFingerprint() {
+        String fingerprint = PayrollFingerprint.of(user, employee, attendance, salaryDetails, TAX_TABLE);
+
+        assertNotEquals(fingerprint, PayrollFingerprint.of(user, employee, attendance,
+                salaryDetails.withSalaryPerHour(56), TAX_TABLE));
+        assertNotEquals(fingerprint, PayrollFingerprint.of(user, employee, new AttendanceMonthSummaryDto(
+                "123456789", 2026, 1, 160, 12.5, 3, 9, 20, 1, 1, 22), salaryDetails, TAX_TABLE));
+        assertNotEquals(fingerprint, PayrollFingerprint.of(user, employee, new AttendanceMonthSummaryDto(
+                "123456789", 2026, 1, 160, 12.75, 3, 8, 20, 1, 1, 22), salaryDetails, TAX_TABLE));
+        assertNotEquals(fingerprint, PayrollFingerprint.of(user, employee, attendance, salaryDetails, YearMonth.of(2023, 1)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.exception.employee.InvalidPayrollPeriodException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks table selection by payroll month and bracket lookups of {@link PayrollTaxTables}.
+ */
+class PayrollTaxTablesTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private final PayrollTaxTables taxTables = new PayrollTaxTables();
+
+    @Test
+    void selectsTableEffectiveForPayrollMonth() {
+        assertEquals(235, taxTables.forPeriod(2023, 12).creditPointValue(), EPSILON);
+        assertEquals(242, taxTables.forPeriod(2024, 1).creditPointValue(), EPSILON);
+        assertSame(taxTables.forPeriod(2024, 1), taxTables.forPeriod(2026, 7));
+        assertThrows(InvalidPayrollPeriodException.class, () -> taxTables.forPeriod(2022, 12));
+        assertThrows(InvalidPayrollPeriodException.class, () -> taxTables.forPeriod(2024, 13));
+    }
+
+    @Test
+    void accumulatesTaxOfLowerBrackets() {
+        BracketTable incomeTax = taxTables.forPeriod(2026, 1).incomeTax();
+
+        assertEquals(0, incomeTax.apply(-100), EPSILON);
+        assertEquals(701, incomeTax.apply(7010), EPSILON);
+        assertEquals(701 + 3050 * 0.14, incomeTax.apply(10060), EPSILON);
+        assertEquals(701 + 3050 * 0.14 + 1000 * 0.20, incomeTax.apply(11060), EPSILON);
+        assertEquals(19100.20 + 39870 * 0.50, incomeTax.apply(100_000), EPSILON);
+    }
+
+    @Test
+    void fixedPointLookupsMatchShekelLookup() {
+        BracketTable employeeNi = taxTables.forPeriod(2023, 6).employeeNi();
+
+        assertEquals(7122 * 0.035, employeeNi.apply(7122), EPSILON);
+        assertEquals(7122 * 0.035 + 1000 * 0.12, employeeNi.apply(8122), EPSILON);
+        assertEquals(712_200L * 350 + 100_000L * 1_200, employeeNi.applyAgorot(812_200));
+        assertEquals(employeeNi.applyAgorot(812_200) * 10_000, employeeNi.applyE4(812_200L * 10_000));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ms.sw.employee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalaryQuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.1, 0.5, 0.9, 0.99, 1};
+
+    @Test
+    void quantilesWithinRelativeAccuracy() {
+        Random random = new Random(21L);
+        double[] salaries = new double[10_000];
+        SalaryQuantileSketch sketch = new SalaryQuantileSketch();
+        for (int i = 0; i < salaries.length; i++) {
+            salaries[i] = Math.round((2500 + Math.abs(random.nextGaussian()) * 1500 + random.nextDouble() * 20000) * 100) / 100.0;
+            sketch.add(salaries[i]);
+        }
+        Arrays.sort(salaries);
+
+        for (double q : QUANTILES) {
+            double exact = salaries[(int) Math.ceil(q * (salaries.length - 1))];
+            assertEquals(exact, sketch.quantile(q), Math.abs(exact) * SalaryQuantileSketch.RELATIVE_ACCURACY, "q=" + q);
+        }
+    }
+
+    @Test
+    void mergedSketchesMatchSingleSketch() {
+        Random random = new Random(7L);
+        SalaryQuantileSketch all = new SalaryQuantileSketch();
+        SalaryQuantileSketch merged = new SalaryQuantileSketch();
+        for (int month = 0; month < 12; month++) {
+            SalaryQuantileSketch monthSketch = new SalaryQuantileSketch();
+            for (int i = 0; i < 300; i++) {
+                double salary = 3000 + random.nextInt(30000);
+                all.add(salary);
+                monthSketch.add(salary);
+            }
+            merged.merge(SalaryQuantileSketch.fromBytes(monthSketch.toBytes()));
+        }
+
+        assertEquals(all.count(), merged.count());
+        for (double q : QUANTILES) {
+            assertEquals(all.quantile(q), merged.quantile(q), 0, "q=" + q);
+        }
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        SalaryQuantileSketch sketch = new SalaryQuantileSketch();
+        sketch.add(5000);
+        sketch.add(7000);
+        sketch.add(0);
+        sketch.remove(7000);
+        sketch.remove(0);
+        sketch.remove(123);
+
+        assertEquals(1, sketch.count());
+        assertEquals(5000, sketch.quantile(1), 5000 * SalaryQuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(0, new SalaryQuantileSketch().quantile(0.5), 0);
+    }
+}
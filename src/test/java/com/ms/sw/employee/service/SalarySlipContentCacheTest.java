@@ -0,0 +1,73 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipFileDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks eviction, ownership and invalidation of the {@link SalarySlipContentCache}.
+ */
+class SalarySlipContentCacheTest {
+
+    // 16 slips of 100 bytes fill the cache
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SalarySlipContentCache cache = new SalarySlipContentCache(meterRegistry, 1600);
+
+    @Test
+    void leastRecentlyServedSlipIsEvicted() {
+        for (long salaryId = 1; salaryId <= 16; salaryId++) {
+            put(cache.generation(), "dana", salaryId);
+        }
+        assertTrue(cache.get("dana", 1L).isPresent());
+
+        put(cache.generation(), "dana", 17L);
+
+        assertTrue(cache.get("dana", 1L).isPresent());
+        assertFalse(cache.get("dana", 2L).isPresent());
+        assertTrue(cache.get("dana", 17L).isPresent());
+        assertEquals(1600.0, meterRegistry.get("salary.slip.cache.bytes").gauge().value());
+        assertEquals(1.0, meterRegistry.get("salary.slip.cache.evictions").counter().count());
+    }
+
+    @Test
+    void slipIsOnlyServedToItsOwner() {
+        put(cache.generation(), "dana", 1L);
+
+        assertFalse(cache.get("yossi", 1L).isPresent());
+        assertTrue(cache.get("dana", 1L).isPresent());
+        assertEquals(0.5, meterRegistry.get("salary.slip.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void slipLoadedBeforeInvalidationIsNotCached() {
+        put(cache.generation(), "dana", 1L);
+        long loadedAt = cache.generation();
+
+        cache.invalidate(1L);
+        put(loadedAt, "dana", 1L);
+
+        assertFalse(cache.get("dana", 1L).isPresent());
+        assertFalse(cache.fits(101));
+    }
+
+    @Test
+    void invalidationOfAnotherSlipDoesNotBlockCaching() {
+        long loadedAt = cache.generation();
+
+        cache.invalidate(2L);
+        put(loadedAt, "dana", 1L);
+
+        assertTrue(cache.get("dana", 1L).isPresent());
+    }
+
+    private void put(long loadedAt, String username, long salaryId) {
+        SalarySlipFileDto slip = new SalarySlipFileDto(salaryId, null, Instant.EPOCH, null);
+        cache.put(loadedAt, username, slip, salaryId + ".pdf", new byte[100]);
+    }
+}
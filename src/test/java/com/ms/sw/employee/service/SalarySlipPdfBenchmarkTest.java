@@ -0,0 +1,110 @@
+package com.ms.sw.employee.service;
+
+import com.lowagie.text.pdf.BaseFont;
+import com.ms.sw.employee.dto.SalarySlipData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Size and time of a synthetic month of salary slips, rendered the way slips were rendered before
+ * the renderer pool (new renderer and full font registration per slip) and through {@link PdfRendererPool}.
+ *
+ * <p>Run with {@code mvn test -Dtest=SalarySlipPdfBenchmarkTest -Dpdf.benchmark=true}.</p>
+ */
+@EnabledIfSystemProperty(named = "pdf.benchmark", matches = "true")
+class SalarySlipPdfBenchmarkTest {
+
+    private static final int SLIPS = Integer.getInteger("pdf.benchmark.slips", 500);
+    private static final int WARMUP = 20;
+
+    private final SalarySlipTemplate template = SalarySlipTemplate.load("templates/salary-template.html");
+
+    @Test
+    void compareFullFontAndSharedSubsetFont() throws Exception {
+        List<String> month = syntheticMonth();
+
+        Result before = measure(month, html -> {
+            ITextRenderer renderer = new ITextRenderer();
+            String fontPath = Objects.requireNonNull(getClass().getResource("/fonts/ARIAL.TTF")).toString();
+            renderer.getFontResolver().addFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            renderer.setDocumentFromString(html);
+            renderer.layout();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            renderer.createPDF(out);
+            return out.size();
+        });
+
+        PdfRendererPool pool = new PdfRendererPool(new SimpleMeterRegistry(), 1);
+        Result after = measure(month, html -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            pool.render(html, out);
+            return out.size();
+        });
+
+        System.out.printf("Salary slips: %d%n", SLIPS);
+        System.out.printf("before: %,d bytes total, %,d bytes/slip, %d ms total, %.1f ms/slip%n",
+                before.bytes, before.bytes / SLIPS, before.millis, before.millis / (double) SLIPS);
+        System.out.printf("after:  %,d bytes total, %,d bytes/slip, %d ms total, %.1f ms/slip%n",
+                after.bytes, after.bytes / SLIPS, after.millis, after.millis / (double) SLIPS);
+
+        assertTrue(after.bytes <= before.bytes, "subset slips must not be larger than full font slips");
+    }
+
+    @FunctionalInterface
+    private interface SlipRenderer {
+        int render(String html) throws Exception;
+    }
+
+    private record Result(long bytes, long millis) {}
+
+    private Result measure(List<String> month, SlipRenderer renderer) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            renderer.render(month.get(i % month.size()));
+        }
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (String html : month) {
+            bytes += renderer.render(html);
+        }
+        return new Result(bytes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<String> syntheticMonth() {
+        String[] names = {"ישראל ישראלי", "Dana Cohen", "משה לוי", "Avi Levi", "רחל אברהם"};
+        String[] departments = {"פיתוח", "QA", "כספים", "Support"};
+        List<String> month = new ArrayList<>(SLIPS);
+
+        for (int i = 0; i < SLIPS; i++) {
+            double hourly = 35 + i % 150;
+            double regularHours = 160 + i % 20;
+            double gross = regularHours * hourly;
+            SalarySlipData data = new SalarySlipData(
+                    "חברה לדוגמה בע\"מ", "512345678", "רחוב הרצל 1 תל אביב",
+                    2026, 1,
+                    names[i % names.length], String.valueOf(100_000_000 + i), departments[i % departments.length],
+                    LocalDate.of(2026, 2, 1),
+                    "מגדל", "הראל", "כלל",
+                    regularHours, i % 10, i % 4, 20,
+                    hourly,
+                    gross, 0, 0, 452, gross + 452,
+                    gross * 0.06, gross * 0.04, gross * 0.94, gross * 0.1, gross * 0.2, gross * 0.8,
+                    2.25,
+                    gross * 0.065, gross * 0.0833, gross * 0.04, gross * 1.19
+            );
+            StringBuilder html = new StringBuilder(template.length() * 2);
+            template.render(data, html);
+            month.add(html.toString());
+        }
+        return month;
+    }
+}
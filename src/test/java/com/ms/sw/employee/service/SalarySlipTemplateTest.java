@@ -0,0 +1,164 @@
+package com.ms.sw.employee.service;
+
+import com.ms.sw.employee.dto.SalarySlipData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares {@link SalarySlipTemplate} with the chained {@code String.replace} rendering it replaced.
+ */
+class SalarySlipTemplateTest {
+
+    private static final String TEMPLATE_PATH = "templates/salary-template.html";
+
+    @Test
+    void rendersLikeChainedReplace() throws Exception {
+        String raw;
+        try (var in = Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream(TEMPLATE_PATH))) {
+            raw = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        SalarySlipTemplate template = SalarySlipTemplate.load(TEMPLATE_PATH);
+        Random random = new Random(6L);
+
+        for (int i = 0; i < 200; i++) {
+            SalarySlipData data = generateSlip(random, i);
+            StringBuilder out = new StringBuilder();
+            template.render(data, out);
+
+            assertEquals(legacyFill(raw, data), out.toString(), "slip " + i);
+        }
+    }
+
+    @Test
+    void formatsLikeStringFormat() {
+        Random random = new Random(42L);
+        StringBuilder out = new StringBuilder();
+
+        double[] edges = {0, -0.0, 0.005, 0.015, 1.005, 2.675, -0.001, -1.235, 0.994999, 99.995, 1e9, 123456789.125};
+        for (double value : edges) {
+            assertFormatted(out, value);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertFormatted(out, random.nextInt(2_000_000) / 100.0 * (random.nextBoolean() ? 1 : 1.0833));
+            assertFormatted(out, random.nextInt(20_000_000) / 1000.0);
+            assertFormatted(out, (random.nextDouble() - 0.1) * 100_000);
+        }
+    }
+
+    @Test
+    void rejectsUnknownPlaceholder() {
+        assertThrows(IllegalStateException.class, () -> SalarySlipTemplate.compile("<p>{{bonus}}</p>"));
+        assertThrows(IllegalStateException.class, () -> SalarySlipTemplate.compile("<p>{{netSalary</p>"));
+    }
+
+    private void assertFormatted(StringBuilder out, double value) {
+        out.setLength(0);
+        SalarySlipTemplate.appendFixed2(out, value);
+        assertEquals(String.format(Locale.ROOT, "%.2f", value), out.toString(), "value " + value);
+    }
+
+    private SalarySlipData generateSlip(Random random, int i) {
+        String[] names = {"ישראל ישראלי", "Dana Cohen", "משה  לוי ", "Avi אבי", "עובד 😀 חדש"};
+        double hourly = random.nextInt(50_000) / 100.0;
+        return new SalarySlipData(
+                "חברה בע\"מ", "512345678", "רחוב הרצל 1 תל אביב",
+                2024 + i % 3, 1 + i % 12,
+                names[i % names.length], "0" + (100_000_000 + i), i % 2 == 0 ? "פיתוח" : "QA",
+                LocalDate.of(2026, 1, 1).plusDays(i),
+                "מגדל", "הראל", "כלל",
+                random.nextInt(20_000) / 100.0, random.nextInt(4_000) / 100.0, random.nextInt(2_000) / 100.0,
+                random.nextInt(23),
+                hourly,
+                random.nextDouble() * 30_000, random.nextDouble() * 3_000, random.nextDouble() * 3_000,
+                random.nextInt(23) * 22.60, random.nextInt(4_000_000) / 100.0,
+                random.nextDouble() * 2_000, random.nextDouble() * 2_000,
+                random.nextDouble() * 30_000, random.nextDouble() * 10_000,
+                random.nextDouble() * 12_000, random.nextDouble() * 30_000 - 1_000,
+                random.nextInt(12) * 0.25,
+                random.nextDouble() * 2_000, random.nextDouble() * 2_000,
+                random.nextDouble() * 2_000, random.nextDouble() * 45_000
+        );
+    }
+
+    /**
+     * Rendering of {@code PdfGeneratorService} before the template was compiled, with a fixed locale.
+     */
+    private String legacyFill(String template, SalarySlipData data) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        String[] hebrewMonths = {
+                "ינואר", "פברואר", "מרץ", "אפריל", "מאי", "יוני",
+                "יולי", "אוגוסט", "ספטמבר", "אוקטובר", "נובמבר", "דצמבר"
+        };
+
+        return template
+                .replace("{{companyName}}", fixHebrew(data.companyName()))
+                .replace("{{taxId}}", data.companyId())
+                .replace("{{companyAddress}}", fixHebrew(data.companyAddress()))
+                .replace("{{monthName}}", fixHebrew(hebrewMonths[data.month() - 1]))
+                .replace("{{year}}", String.valueOf(data.year()))
+                .replace("{{employeeName}}", fixHebrew(data.employeeName()))
+                .replace("{{personalId}}", data.personalId())
+                .replace("{{department}}", fixHebrew(data.department()))
+                .replace("{{paymentDate}}", data.paymentDate().format(dateFormatter))
+                .replace("{{regularHours}}", fixed2(data.regularHours()))
+                .replace("{{overtime125Hours}}", fixed2(data.overtime125Hours()))
+                .replace("{{overtime150Hours}}", fixed2(data.overtime150Hours()))
+                .replace("{{travelDays}}", String.valueOf(data.travelDays()))
+                .replace("{{hourlyRate}}", fixed2(data.hourlyRate()))
+                .replace("{{overtime125Rate}}", fixed2(data.hourlyRate() * 1.25))
+                .replace("{{overtime150Rate}}", fixed2(data.hourlyRate() * 1.50))
+                .replace("{{regularPay}}", fixed2(data.regularPay()))
+                .replace("{{overtime125Pay}}", fixed2(data.overtime125Pay()))
+                .replace("{{overtime150Pay}}", fixed2(data.overtime150Pay()))
+                .replace("{{travelAllowance}}", fixed2(data.travelAllowance()))
+                .replace("{{grossSalary}}", fixed2(data.grossSalary()))
+                .replace("{{employeePension}}", fixed2(data.employeePension()))
+                .replace("{{nationalInsurance}}", fixed2(data.nationalInsurance()))
+                .replace("{{taxableIncome}}", fixed2(data.taxableIncome()))
+                .replace("{{incomeTax}}", fixed2(data.incomeTax()))
+                .replace("{{creditPoints}}", fixed2(data.creditPoints()))
+                .replace("{{totalDeductions}}", fixed2(data.totalDeductions()))
+                .replace("{{netSalary}}", fixed2(data.netSalary()))
+                .replace("{{employerPension}}", fixed2(data.employerPension()))
+                .replace("{{employerSeverance}}", fixed2(data.employerSeverance()))
+                .replace("{{employerNI}}", fixed2(data.employerNI()))
+                .replace("{{totalEmployerCost}}", fixed2(data.totalEmployerCost()))
+                .replace("{{generationDate}}", data.paymentDate().format(dateFormatter));
+    }
+
+    private String fixed2(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private String fixHebrew(String text) {
+        if (text == null) return "";
+
+        boolean hasHebrew = text.chars().anyMatch(c -> c >= 0x0590 && c <= 0x05FF);
+        if (!hasHebrew) return text;
+
+        StringBuilder result = new StringBuilder();
+        String[] words = text.split(" ");
+
+        for (int i = words.length - 1; i >= 0; i--) {
+            String word = words[i];
+
+            if (word.chars().anyMatch(c -> c >= 0x0590 && c <= 0x05FF)) {
+                result.append(new StringBuilder(word).reverse());
+            } else {
+                result.append(word);
+            }
+            if (i > 0) result.append(" ");
+        }
+
+        return result.toString();
+    }
+}